@@ -0,0 +1,45 @@
+package bench;
+
+import api.CacheManager;
+import model.Match;
+import org.openjdk.jmh.annotations.*;
+import service.DataParser;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// CacheManager writes under user.home, the forked jvm points it at target/ so real caches are untouched
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Duser.home=target/bench-home")
+public class CacheBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int fixtures;
+
+    private final DataParser parser = new DataParser();
+    private List<Match> matches;
+    private String saveKey;
+    private String loadKey;
+
+    @Setup
+    public void setup() throws Exception {
+        matches = new FixtureGenerator(42).matches(fixtures);
+        saveKey = "bench_save_" + fixtures;
+        loadKey = "bench_load_" + fixtures;
+        CacheManager.saveMatches(loadKey, matches);
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        CacheManager.saveMatches(saveKey, matches);
+    }
+
+    @Benchmark
+    public List<Match> load() throws Exception {
+        return CacheManager.loadMatches(loadKey, parser);
+    }
+}
@@ -0,0 +1,50 @@
+package bench;
+
+import model.Coupon;
+import model.Match;
+import model.RiskLevel;
+import org.openjdk.jmh.annotations.*;
+import service.BetLogicService;
+import service.StatsService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CouponBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int fixtures;
+
+    @Param({"SAFE", "MEDIUM", "RISKY"})
+    public RiskLevel risk;
+
+    @Param({"10"})
+    public double targetOdd;
+
+    private BetLogicService logic;
+    private List<Match> matches;
+
+    @Setup
+    public void setup() {
+        StatsService stats = new StatsService();
+        logic = new BetLogicService(stats);
+        matches = new FixtureGenerator(42).matches(fixtures);
+        stats.resolveTeams(matches);
+    }
+
+    @Benchmark
+    public Coupon generateSmartCoupon() {
+        return logic.generateSmartCoupon(matches, targetOdd, risk);
+    }
+
+    @Benchmark
+    public String getAllMatchesAnalysis() {
+        return logic.getAllMatchesAnalysis(matches);
+    }
+}
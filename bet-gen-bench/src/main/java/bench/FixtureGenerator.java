@@ -0,0 +1,127 @@
+package bench;
+
+import model.Match;
+import service.DataParser;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// synthetic odds api payloads, same shape as /v4/sports/{league}/odds with betclic + pinnacle
+// teams come from stats.csv so predictions hit real stats, kickoffs are spread over the next 3 days
+public final class FixtureGenerator {
+
+    static final String[][] LEAGUES = {
+            {"soccer_epl", "EPL"},
+            {"soccer_spain_la_liga", "La Liga - Spain"},
+            {"soccer_italy_serie_a", "Serie A - Italy"},
+            {"soccer_germany_bundesliga", "Bundesliga - Germany"},
+            {"soccer_france_ligue_one", "Ligue 1 - France"}
+    };
+
+    private static final DateTimeFormatter API_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+    private final Random random;
+    private final List<String> teams;
+
+    public FixtureGenerator(long seed) {
+        this.random = new Random(seed);
+        this.teams = loadTeams();
+    }
+
+    public List<String> teams() {
+        return teams;
+    }
+
+    // fixtures of all five leagues in one array, as if the league payloads were concatenated
+    public String payload(int fixtures) {
+        LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        StringBuilder sb = new StringBuilder(fixtures * 900);
+        sb.append('[');
+        for (int i = 0; i < fixtures; i++) {
+            if (i > 0) sb.append(',');
+            String[] league = LEAGUES[i % LEAGUES.length];
+            String home = teams.get(random.nextInt(teams.size()));
+            String away = teams.get(random.nextInt(teams.size()));
+            // suffix keeps fixtures distinct when teams repeat at 10k
+            if (fixtures > teams.size()) away = away + " " + (i / teams.size());
+            LocalDateTime kickoff = start.plusHours(random.nextInt(72)).plusMinutes(15L * random.nextInt(4));
+
+            sb.append("{\"id\":\"").append(Integer.toHexString(i * 7919 + 17)).append("\",")
+                    .append("\"sport_key\":\"").append(league[0]).append("\",")
+                    .append("\"sport_title\":\"").append(league[1]).append("\",")
+                    .append("\"commence_time\":\"").append(API_TIME.format(kickoff)).append("\",")
+                    .append("\"home_team\":\"").append(home).append("\",")
+                    .append("\"away_team\":\"").append(away).append("\",")
+                    .append("\"bookmakers\":[");
+            appendBookmaker(sb, "betclic_fr", "Betclic", home, away);
+            sb.append(',');
+            appendBookmaker(sb, "pinnacle", "Pinnacle", home, away);
+            sb.append("]}");
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    private void appendBookmaker(StringBuilder sb, String key, String title, String home, String away) {
+        double homePrice = 1.2 + random.nextDouble() * 4.0;
+        double awayPrice = 1.2 + random.nextDouble() * 5.0;
+        double drawPrice = 2.8 + random.nextDouble() * 1.5;
+        double line = (random.nextInt(4) == 0) ? 3.5 : (random.nextBoolean() ? 2.5 : 1.5);
+        double overPrice = 1.3 + random.nextDouble() * 1.2;
+        double underPrice = 1.3 + random.nextDouble() * 1.2;
+
+        sb.append("{\"key\":\"").append(key).append("\",\"title\":\"").append(title)
+                .append("\",\"last_update\":\"2024-01-01T00:00:00Z\",\"markets\":[")
+                .append("{\"key\":\"h2h\",\"outcomes\":[");
+        outcome(sb, home, homePrice, Double.NaN).append(',');
+        outcome(sb, away, awayPrice, Double.NaN).append(',');
+        outcome(sb, "Draw", drawPrice, Double.NaN);
+        sb.append("]},{\"key\":\"totals\",\"outcomes\":[");
+        outcome(sb, "Over", overPrice, line).append(',');
+        outcome(sb, "Under", underPrice, line);
+        sb.append("]}]}");
+    }
+
+    private static StringBuilder outcome(StringBuilder sb, String name, double price, double point) {
+        sb.append("{\"name\":\"").append(name).append("\",\"price\":")
+                .append(String.format(Locale.ROOT, "%.2f", price));
+        if (!Double.isNaN(point)) sb.append(",\"point\":").append(point);
+        return sb.append('}');
+    }
+
+    // parsed through the real parser so the objects look exactly like downloaded ones
+    public List<Match> matches(int fixtures) {
+        return new DataParser().parseMatches(payload(fixtures));
+    }
+
+    private static List<String> loadTeams() {
+        List<String> names = new ArrayList<>();
+        try (InputStream is = FixtureGenerator.class.getClassLoader().getResourceAsStream("stats.csv")) {
+            if (is != null) {
+                BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+                br.readLine(); // skip header
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String name = line.split(",")[0].trim();
+                    if (!name.isEmpty()) names.add(name);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Could not read stats.csv: " + e.getMessage());
+        }
+        if (names.isEmpty()) {
+            for (int i = 0; i < 100; i++) names.add("Team " + i);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,49 @@
+package bench;
+
+import model.Match;
+import org.openjdk.jmh.annotations.*;
+import service.DataParser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int fixtures;
+
+    private final DataParser parser = new DataParser();
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        json = new FixtureGenerator(42).payload(fixtures);
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Match> parseString() {
+        return parser.parseMatches(json);
+    }
+
+    // the network path, body arrives as a stream
+    @Benchmark
+    public List<Match> parseStream() {
+        return parser.parseMatches(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public List<Match> parseBuffer() {
+        return parser.parseMatches(ByteBuffer.wrap(bytes));
+    }
+}
@@ -0,0 +1,43 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+import service.StatsService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsBenchmark {
+
+    private StatsService stats;
+    private String[] teams;
+    private int next;
+
+    @Setup
+    public void setup() {
+        stats = new StatsService();
+        List<String> names = new FixtureGenerator(42).teams();
+        teams = names.toArray(new String[0]);
+    }
+
+    private String nextTeam() {
+        String team = teams[next];
+        next = (next + 1 == teams.length) ? 0 : next + 1;
+        return team;
+    }
+
+    @Benchmark
+    public double predictBTTSProb() {
+        return stats.predictBTTSProb(nextTeam(), nextTeam());
+    }
+
+    @Benchmark
+    public double getWinRate() {
+        return stats.getWinRate(nextTeam());
+    }
+}
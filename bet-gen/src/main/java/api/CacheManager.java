@@ -1,16 +1,40 @@
 package api;
 
+import diag.Log;
+import model.Match;
+import service.ConfigLoader;
+import service.DataParser;
+
+import java.io.EOFException;
 import java.io.File;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import org.json.JSONArray;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CacheManager {
-    private static final long CACHE_DURATION_MS = 60 * 60 * 1000; // 60 minutes
+    private static final long CACHE_DURATION_MS = 60 * 60 * 1000; // 60 minutes, default for every league
 
-    // safe path to save
-    private static Path getSafePath(String leagueKey) {
+    // first tier: already parsed matches of every league, a stale entry stays as the last good snapshot
+    private record MemoryEntry(List<Match> matches, long savedAt) {}
+
+    private static final Map<String, MemoryEntry> memoryCache = new ConcurrentHashMap<>();
+    // last known write time of every cache file, so we do not stat the disk on each check
+    private static final Map<String, Long> savedAtByLeague = new ConcurrentHashMap<>();
+    private static final Map<String, Long> ttlByLeague = new ConcurrentHashMap<>();
+
+    private static final Path CACHE_FOLDER = createCacheFolder();
+
+    private static Path createCacheFolder() {
         String userHome = System.getProperty("user.home");
         Path cacheFolder = Paths.get(userHome, ".betaidashboard");
 
@@ -18,37 +42,140 @@ public class CacheManager {
             try {
                 Files.createDirectories(cacheFolder);
             } catch (Exception e) {
-                System.err.println("Could not create cache directory: " + e.getMessage());
+                Log.warn("CACHE", "Could not create cache directory: " + e.getMessage());
             }
         }
-        return cacheFolder.resolve("cache_" + leagueKey + ".json");
+        return cacheFolder;
+    }
+
+    // safe path to save
+    private static Path getSnapshotPath(String leagueKey) {
+        return CACHE_FOLDER.resolve("cache_" + leagueKey + ".bin");
+    }
+
+    // pretty-printed json written by older versions, converted on first load
+    private static Path getLegacyJsonPath(String leagueKey) {
+        return CACHE_FOLDER.resolve("cache_" + leagueKey + ".json");
+    }
+
+    // cache.ttl.minutes.<league> in application.properties, then cache.ttl.minutes, then 60 minutes
+    public static long getTtlMs(String leagueKey) {
+        return ttlByLeague.computeIfAbsent(leagueKey, key -> {
+            String minutes = ConfigLoader.getProperty("cache.ttl.minutes." + key);
+            if (minutes == null) minutes = ConfigLoader.getProperty("cache.ttl.minutes");
+            try {
+                return (minutes != null) ? Long.parseLong(minutes.trim()) * 60 * 1000 : CACHE_DURATION_MS;
+            } catch (NumberFormatException e) {
+                return CACHE_DURATION_MS;
+            }
+        });
+    }
+
+    private static boolean isFresh(String leagueKey, long savedAt) {
+        return (System.currentTimeMillis() - savedAt) < getTtlMs(leagueKey);
     }
 
     public static boolean isCacheValid(String leagueKey) {
-        File file = getSafePath(leagueKey).toFile();
+        Long knownSavedAt = savedAtByLeague.get(leagueKey);
+        if (knownSavedAt != null && isFresh(leagueKey, knownSavedAt)) return true;
+
+        File file = getSnapshotPath(leagueKey).toFile();
+        if (!file.exists()) file = getLegacyJsonPath(leagueKey).toFile();
         if (!file.exists()) return false;
 
         long lastModified = file.lastModified();
-        long now = System.currentTimeMillis();
-        return (now - lastModified) < CACHE_DURATION_MS;
+        savedAtByLeague.put(leagueKey, lastModified);
+        return isFresh(leagueKey, lastModified);
     }
 
-    public static String loadCache(String leagueKey) throws Exception {
-        System.out.println(">>> Reading from secure user path: " + leagueKey);
-        return Files.readString(getSafePath(leagueKey));
+    // any snapshot on disk, fresh or not
+    public static boolean hasSnapshot(String leagueKey) {
+        return Files.exists(getSnapshotPath(leagueKey)) || Files.exists(getLegacyJsonPath(leagueKey));
     }
 
-    public static void saveCache(String leagueKey, String data) throws Exception {
-        String fixedData;
+    // returns null when there is nothing fresh in memory
+    public static List<Match> getCachedMatches(String leagueKey) {
+        MemoryEntry entry = memoryCache.get(leagueKey);
+        if (entry == null || !isFresh(leagueKey, entry.savedAt())) return null;
+        return entry.matches();
+    }
+
+    // last good matches of a league regardless of age, null when the league was never loaded
+    public static List<Match> getStaleMatches(String leagueKey) {
+        MemoryEntry entry = memoryCache.get(leagueKey);
+        return (entry != null) ? entry.matches() : null;
+    }
+
+    private static void remember(String leagueKey, List<Match> matches, long savedAt) {
+        savedAtByLeague.put(leagueKey, savedAt);
+        memoryCache.put(leagueKey, new MemoryEntry(List.copyOf(matches), savedAt));
+    }
+
+    public static List<Match> loadMatches(String leagueKey, DataParser parser) throws Exception {
+        Log.info("CACHE", () -> "Reading from secure user path: " + leagueKey);
+        Path snapshot = getSnapshotPath(leagueKey);
+        if (!Files.exists(snapshot)) {
+            convertLegacyJson(leagueKey, parser);
+        }
+
+        // one read into a heap buffer, no mapping is left open on the file
+        // (a live mapping blocks the atomic replace in writeSnapshot on windows)
+        List<Match> matches;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) throw new EOFException("Snapshot truncated: " + snapshot);
+            }
+            buffer.flip();
+            matches = SnapshotCodec.decode(buffer);
+        }
+        remember(leagueKey, matches, Files.getLastModifiedTime(snapshot).toMillis());
+        return matches;
+    }
+
+    private static void convertLegacyJson(String leagueKey, DataParser parser) throws Exception {
+        Path legacy = getLegacyJsonPath(leagueKey);
+        FileTime lastModified = Files.getLastModifiedTime(legacy);
+
+        List<Match> matches;
+        try (InputStream in = Files.newInputStream(legacy)) {
+            matches = parser.parseMatches(in);
+        } catch (UncheckedIOException e) {
+            // unreadable old cache, dropped so the next fetch downloads the league again
+            Files.delete(legacy);
+            throw e;
+        }
+        writeSnapshot(leagueKey, matches);
+
+        // converted file keeps the original age, so the cache window is not restarted
+        Files.setLastModifiedTime(getSnapshotPath(leagueKey), lastModified);
+        Files.delete(legacy);
+        Log.info("CACHE", () -> "Converted old json cache to snapshot: " + leagueKey);
+    }
+
+    public static void saveMatches(String leagueKey, List<Match> matches) throws Exception {
+        writeSnapshot(leagueKey, matches);
+        Files.deleteIfExists(getLegacyJsonPath(leagueKey));
+        remember(leagueKey, matches, System.currentTimeMillis());
+        Log.info("CACHE", () -> "Saved data to secure user path: " + leagueKey);
+    }
+
+    // written to a temp file first and moved over the old one, readers never see half a snapshot
+    private static void writeSnapshot(String leagueKey, List<Match> matches) throws Exception {
+        ByteBuffer data = SnapshotCodec.encode(matches);
+        Path target = getSnapshotPath(leagueKey);
+        Path tmp = Files.createTempFile(CACHE_FOLDER, "cache_" + leagueKey, ".tmp");
+
         try {
-            JSONArray jsonArray = new JSONArray(data);
-            fixedData = jsonArray.toString(4);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) channel.write(data);
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
         } catch (Exception e) {
-            fixedData = data;
+            // no half written cache_*.tmp files piling up in the cache folder
+            Files.deleteIfExists(tmp);
+            throw e;
         }
-
-        // Zapisujemy do bezpiecznej ścieżki zamiast do folderu aplikacji
-        Files.writeString(getSafePath(leagueKey), fixedData);
-        System.out.println(">>> Saved data to secure user path: " + leagueKey);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package api;
+
+import service.ConfigLoader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// one http client for the whole app, so connections (and TLS sessions) are kept alive and reused
+public final class HttpTransport {
+    private static final int MAX_THREADS = 4;
+    // at least one per odds league (FetchPipeline.LEAGUE_KEYS), so a full fetch never waits on itself
+    private static final int MAX_REQUESTS_PER_HOST = readLimit("http.max.requests.per.host", 8);
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(MAX_THREADS, r -> {
+        Thread t = new Thread(r, "http-transport");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // HTTP/2 is used when the server supports it, otherwise the client falls back to HTTP/1.1 keep-alive
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(EXECUTOR)
+            .build();
+
+    private static final Map<String, Semaphore> HOST_LIMITS = new ConcurrentHashMap<>();
+
+    private HttpTransport() {}
+
+    public static HttpResponse<String> send(HttpRequest request) throws Exception {
+        return send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    public static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws Exception {
+        Semaphore permits = permits(request);
+        permits.acquire();
+        try {
+            return CLIENT.send(request, bodyHandler);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // the body is still arriving when send returns, so the permit is only given back when the stream is closed
+    public static HttpResponse<InputStream> sendStreaming(HttpRequest request) throws Exception {
+        Semaphore permits = permits(request);
+        permits.acquire();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            return CLIENT.send(request, info -> HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofInputStream(), in -> new PermitStream(in, permits, released)));
+        } catch (Exception e) {
+            if (released.compareAndSet(false, true)) permits.release();
+            throw e;
+        }
+    }
+
+    private static Semaphore permits(HttpRequest request) {
+        return HOST_LIMITS.computeIfAbsent(request.uri().getHost(), h -> new Semaphore(MAX_REQUESTS_PER_HOST));
+    }
+
+    private static int readLimit(String key, int fallback) {
+        String value = ConfigLoader.getProperty(key);
+        try {
+            return (value != null) ? Math.max(1, Integer.parseInt(value.trim())) : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static final class PermitStream extends FilterInputStream {
+        private final Semaphore permits;
+        private final AtomicBoolean released;
+
+        PermitStream(InputStream in, Semaphore permits, AtomicBoolean released) {
+            super(in);
+            this.permits = permits;
+            this.released = released;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (released.compareAndSet(false, true)) permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package api;
+
+import diag.FetchEvent;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// counts the body bytes of one download and commits its FetchEvent when the stream is closed
+// complete stays false when the reader stopped (or the transfer broke) before the end of the body
+class MeteredInputStream extends FilterInputStream {
+    private final FetchEvent event;
+    private long bytes;
+    private boolean closed;
+
+    MeteredInputStream(InputStream in, FetchEvent event) {
+        super(in);
+        this.event = event;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) bytes++;
+        else event.complete = true;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        int n = super.read(buf, off, len);
+        if (n > 0) bytes += n;
+        else if (n < 0) event.complete = true;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        bytes += skipped;
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (!closed) {
+                closed = true;
+                event.bytes = bytes;
+                event.commit();
+            }
+        }
+    }
+}
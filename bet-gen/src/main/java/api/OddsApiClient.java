@@ -1,9 +1,14 @@
 package api;
 
+import diag.Counter;
+import diag.FetchEvent;
+import diag.LatencyHistogram;
+import diag.Log;
+import diag.Metrics;
 import service.ConfigLoader;
 
+import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 
@@ -17,37 +22,63 @@ public class OddsApiClient {
             "&bookmakers=betclic_fr,pinnacle" +
             "&apiKey=" + API_KEY;
 
-    public String getRawData(String sportKey) throws Exception {
-        // will appear when out tokens are not being used
-        if (CacheManager.isCacheValid(sportKey)) {
-            System.out.println(">>> [CACHE] Loading " + sportKey + " from local disk (0 tokens used).");
-            return CacheManager.loadCache(sportKey);
-        }
+    private static final LatencyHistogram LATENCY = Metrics.histogram("odds_api_request_seconds");
+    private static final Counter ERRORS = Metrics.counter("odds_api_errors_total");
+
+    private final TokenBudget budget = new TokenBudget();
+
+    public OddsApiClient() {
+        Metrics.gauge("odds_tokens_remaining", () -> budget.getRemaining().orElse(-1));
+        Metrics.gauge("odds_tokens_used", budget::getUsed);
+    }
+
+    public TokenBudget getBudget() { return budget; }
 
+    // always goes to the network, cache checks are done by the caller (see FetchPipeline)
+    // the body is handed over as a stream so it can be parsed while it is still arriving
+    public InputStream getRawStream(String sportKey) throws Exception {
         // will appear if our tokens are being taken to download the data from API
-        System.out.println(">>> [API] Fetching " + sportKey + " (Betclic & Pinnacle)...");
+        Log.info("API", () -> "Fetching " + sportKey + " (Betclic & Pinnacle)...");
         String fullUrl = String.format(BASE_URL, sportKey);
 
-        HttpClient client = HttpClient.newHttpClient();
+        FetchEvent event = new FetchEvent();
+        event.begin();
+        event.league = sportKey;
+
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(fullUrl))
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("API Error: Status " + response.statusCode());
+        // time to response headers, the body is streamed into the parser afterwards
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response;
+        try {
+            response = HttpTransport.sendStreaming(request);
+        } catch (Exception e) {
+            ERRORS.inc();
+            throw e;
+        } finally {
+            LATENCY.recordSince(start);
         }
 
         // info about remaining tokens
         String used = response.headers().firstValue("x-requests-used").orElse("?");
         String remaining = response.headers().firstValue("x-requests-remaining").orElse("?");
 
-        System.out.println(">>> [TOKENS] Used: " + used + " | Remaining: " + remaining);
+        Log.info("TOKENS", () -> "Used: " + used + " | Remaining: " + remaining);
+        // quota headers come with error responses too, so the scheduler sees an exhausted key
+        budget.update(used, remaining);
+        event.status = response.statusCode();
+        event.tokensRemaining = budget.getRemaining().orElse(-1);
 
-        // we save it to cache not to use our tokens many times
-        CacheManager.saveCache(sportKey, response.body());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            event.commit();
+            ERRORS.inc();
+            throw new RuntimeException("API Error: Status " + response.statusCode());
+        }
 
-        return response.body();
+        // event ends when the caller closes the body, so it covers the whole transfer
+        return new MeteredInputStream(response.body(), event);
     }
 }
\ No newline at end of file
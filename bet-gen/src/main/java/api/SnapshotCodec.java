@@ -0,0 +1,125 @@
+package api;
+
+import model.BetOption;
+import model.Match;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// compact binary layout of a cached league:
+// header | string table (team and outcome names stored once) | match records pointing into the table
+// version 2 stores string lengths and odds counts as ints (version 1 used shorts and is still readable)
+public final class SnapshotCodec {
+    private static final int MAGIC = 0x42455453; // "BETS"
+    private static final short VERSION = 2;
+    private static final long NO_KICKOFF = Long.MIN_VALUE;
+
+    private SnapshotCodec() {}
+
+    public static ByteBuffer encode(List<Match> matches) {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        int recordBytes = 0;
+
+        for (Match m : matches) {
+            intern(m.getHomeTeam(), strings, stringIds);
+            intern(m.getAwayTeam(), strings, stringIds);
+            intern(m.getSportTitle(), strings, stringIds);
+            List<BetOption> odds = (m.getOdds() != null) ? m.getOdds() : List.of();
+            for (BetOption o : odds) intern(o.getName(), strings, stringIds);
+            // 3 string ids, kickoff, odds count, then per option: name id, price, point
+            recordBytes += 3 * 4 + 8 + 4 + odds.size() * (4 + 8 + 8);
+        }
+
+        List<byte[]> encodedStrings = new ArrayList<>(strings.size());
+        int stringBytes = 0;
+        for (String s : strings) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            encodedStrings.add(b);
+            stringBytes += 4 + b.length;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(4 + 2 + 4 + stringBytes + 4 + recordBytes);
+        buf.putInt(MAGIC);
+        buf.putShort(VERSION);
+
+        buf.putInt(encodedStrings.size());
+        for (byte[] b : encodedStrings) {
+            buf.putInt(b.length);
+            buf.put(b);
+        }
+
+        buf.putInt(matches.size());
+        for (Match m : matches) {
+            buf.putInt(stringIds.get(nonNull(m.getHomeTeam())));
+            buf.putInt(stringIds.get(nonNull(m.getAwayTeam())));
+            buf.putInt(stringIds.get(nonNull(m.getSportTitle())));
+            // the json path accepts a match without kickoff, so the snapshot has to as well
+            buf.putLong((m.getTime() != null) ? m.getTime().toEpochSecond(ZoneOffset.UTC) : NO_KICKOFF);
+
+            List<BetOption> odds = (m.getOdds() != null) ? m.getOdds() : List.of();
+            buf.putInt(odds.size());
+            for (BetOption o : odds) {
+                buf.putInt(stringIds.get(nonNull(o.getName())));
+                buf.putDouble(o.getPrice());
+                buf.putDouble(o.getPoint() != null ? o.getPoint() : Double.NaN); // NaN = no goal line
+            }
+        }
+        return buf.flip();
+    }
+
+    public static List<Match> decode(ByteBuffer buf) {
+        if (buf.getInt() != MAGIC) throw new IllegalStateException("Unknown cache snapshot format");
+        short version = buf.getShort();
+        if (version != 1 && version != VERSION) throw new IllegalStateException("Unknown cache snapshot version " + version);
+        boolean wide = (version == VERSION);
+
+        String[] strings = new String[buf.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] b = new byte[wide ? buf.getInt() : buf.getShort() & 0xFFFF];
+            buf.get(b);
+            strings[i] = new String(b, StandardCharsets.UTF_8);
+        }
+
+        int matchCount = buf.getInt();
+        List<Match> matches = new ArrayList<>(matchCount);
+        for (int i = 0; i < matchCount; i++) {
+            Match match = new Match();
+            match.setHomeTeam(strings[buf.getInt()]);
+            match.setAwayTeam(strings[buf.getInt()]);
+            match.setSportTitle(strings[buf.getInt()]);
+            long kickoff = buf.getLong();
+            match.setTime((kickoff != NO_KICKOFF) ? LocalDateTime.ofEpochSecond(kickoff, 0, ZoneOffset.UTC) : null);
+
+            int oddsCount = wide ? buf.getInt() : buf.getShort() & 0xFFFF;
+            List<BetOption> odds = new ArrayList<>(oddsCount);
+            for (int j = 0; j < oddsCount; j++) {
+                String name = strings[buf.getInt()];
+                double price = buf.getDouble();
+                double point = buf.getDouble();
+                odds.add(new BetOption(name, price, Double.isNaN(point) ? null : point));
+            }
+            match.setOdds(odds);
+            matches.add(match);
+        }
+        return matches;
+    }
+
+    private static void intern(String s, List<String> strings, Map<String, Integer> stringIds) {
+        String value = nonNull(s);
+        if (!stringIds.containsKey(value)) {
+            stringIds.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    private static String nonNull(String s) {
+        return (s != null) ? s : "";
+    }
+}
@@ -0,0 +1,38 @@
+package api;
+
+import java.util.OptionalInt;
+
+// last quota reported by the odds api (x-requests-used / x-requests-remaining headers)
+// -1 means we have not talked to the api yet in this session
+public class TokenBudget {
+    private volatile int used = -1;
+    private volatile int remaining = -1;
+    private volatile long updatedAt;
+
+    void update(String usedHeader, String remainingHeader) {
+        int u = parse(usedHeader);
+        int r = parse(remainingHeader);
+        if (u >= 0) used = u;
+        if (r >= 0) remaining = r;
+        if (u >= 0 || r >= 0) updatedAt = System.currentTimeMillis();
+    }
+
+    private static int parse(String header) {
+        if (header == null) return -1;
+        try {
+            // the api sends whole numbers but older responses had "480.0"
+            return (int) Double.parseDouble(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public int getUsed() { return used; }
+
+    public long getUpdatedAt() { return updatedAt; }
+
+    public OptionalInt getRemaining() {
+        int r = remaining;
+        return (r >= 0) ? OptionalInt.of(r) : OptionalInt.empty();
+    }
+}
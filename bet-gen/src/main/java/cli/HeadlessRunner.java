@@ -0,0 +1,202 @@
+package cli;
+
+import api.OddsApiClient;
+import diag.Log;
+import http.ApiServer;
+import model.Coupon;
+import model.RiskLevel;
+import org.json.JSONObject;
+import service.BetLogicService;
+import service.CandidateIndex;
+import service.ConfigLoader;
+import service.DataParser;
+import service.FetchPipeline;
+import service.JsonExport;
+import service.MatchStore;
+import service.SnapshotService;
+import service.StatsService;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// batch coupon generation without the javafx toolkit:
+//   java -jar bet-gen.jar --headless [--in requests.txt] [--out results.jsonl]
+//   java -jar bet-gen.jar --headless --serve      (json api only, see http.ApiServer)
+// one request per line, "5.0 SAFE" / "12,RISKY" or {"target": 5.0, "risk": "SAFE"}, '#' starts a comment
+// without --in the requests are read from stdin, without --out results go to stdout (logs then go to stderr)
+public class HeadlessRunner {
+
+    record Request(int line, double target, RiskLevel risk) {}
+
+    private static final int DEFAULT_API_PORT = 8787;
+
+    public static void main(String[] args) {
+        int code = run(args);
+        // --serve leaves the refresh thread and the http server running
+        if (!Arrays.asList(args).contains("--serve")) System.exit(code);
+    }
+
+    static int run(String[] args) {
+        if (Arrays.asList(args).contains("--serve")) return serve();
+        return run(args, new OddsApiClient());
+    }
+
+    static int run(String[] args, OddsApiClient client) {
+
+        String in = option(args, "--in");
+        String out = option(args, "--out");
+        if (out == null) Log.redirectToStderr();
+
+        List<Request> requests;
+        try {
+            requests = readRequests(in);
+        } catch (Exception e) {
+            Log.error("BATCH", "Could not read requests: " + e.getMessage(), null);
+            return 2;
+        }
+        if (requests.isEmpty()) {
+            Log.warn("BATCH", "No requests given.");
+            return 0;
+        }
+
+        StatsService statsService = new StatsService();
+        BetLogicService logicService = new BetLogicService(statsService);
+        MatchStore matchStore = new MatchStore();
+        CandidateIndex candidateIndex = CandidateIndex.create(logicService, matchStore);
+        FetchPipeline pipeline = new FetchPipeline(client, new DataParser(), matchStore, statsService);
+
+        long start = System.nanoTime();
+        try {
+            // no stale-while-revalidate here: the results are written once and the process exits,
+            // so a background refresh would never reach them
+            pipeline.fetchAll(false).join();
+        } catch (Exception e) {
+            // leagues that did load are still used
+            Log.warn("BATCH", "Some leagues failed to load: " + e.getMessage());
+        }
+        Log.info("BATCH", "Loaded " + matchStore.size() + " matches in " + (System.nanoTime() - start) / 1_000_000 + " ms, "
+                + requests.size() + " requests on " + Runtime.getRuntime().availableProcessors() + " cores.");
+
+        // requests run in parallel, results are written in input order
+        try (PrintStream output = (out != null)
+                ? new PrintStream(Files.newOutputStream(Paths.get(out)), false, StandardCharsets.UTF_8)
+                : new PrintStream(System.out, false, StandardCharsets.UTF_8)) {
+            IntStream.range(0, requests.size()).parallel()
+                    .mapToObj(i -> solve(candidateIndex, requests.get(i)))
+                    .forEachOrdered(output::println);
+            output.flush();
+        } catch (Exception e) {
+            Log.error("BATCH", "Could not write results: " + e.getMessage(), null);
+            return 2;
+        }
+        Log.info("BATCH", "Done in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        return 0;
+    }
+
+    // keeps running until the process is stopped, leagues are re-fetched every api.refresh.minutes
+    // (cache ttl and the refresh scheduler still decide whether that costs a token)
+    private static int serve() {
+        StatsService statsService = new StatsService();
+        BetLogicService logicService = new BetLogicService(statsService);
+        MatchStore matchStore = new MatchStore();
+        CandidateIndex candidateIndex = CandidateIndex.create(logicService, matchStore);
+        SnapshotService snapshots = SnapshotService.create(logicService, candidateIndex, matchStore);
+        FetchPipeline pipeline = new FetchPipeline(new OddsApiClient(), new DataParser(), matchStore, statsService);
+
+        String port = ConfigLoader.getProperty("api.port");
+        String minutes = ConfigLoader.getProperty("api.refresh.minutes");
+        ApiServer.start((port != null && !port.isBlank()) ? Integer.parseInt(port.trim()) : DEFAULT_API_PORT, snapshots);
+        long period = (minutes != null && !minutes.isBlank()) ? Long.parseLong(minutes.trim()) : 5;
+
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "api-refresh"));
+        refresher.scheduleWithFixedDelay(() -> {
+            try {
+                pipeline.fetchAll().join();
+                Log.info("API", "Serving " + matchStore.size() + " matches (snapshot v" + snapshots.current().version() + ").");
+            } catch (Exception e) {
+                Log.warn("API", "Refresh failed: " + e.getMessage());
+            }
+        }, 0, period, TimeUnit.MINUTES);
+        return 0;
+    }
+
+    // a failing request becomes an error line, the rest of the batch still runs
+    private static String solve(CandidateIndex index, Request request) {
+        long start = System.nanoTime();
+        try {
+            Coupon coupon = index.generateSmartCoupon(request.target(), request.risk());
+            return JsonExport.coupon(coupon)
+                    .put("line", request.line())
+                    .put("target", request.target())
+                    .put("risk", request.risk().name())
+                    .put("elapsedMs", (System.nanoTime() - start) / 1_000_000)
+                    .toString();
+        } catch (Exception e) {
+            Log.error("BATCH", "Request on line " + request.line() + " failed", e);
+            return new JSONObject()
+                    .put("line", request.line())
+                    .put("error", String.valueOf(e.getMessage()))
+                    .toString();
+        }
+    }
+
+    private static String option(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) return args[i + 1];
+        }
+        return null;
+    }
+
+    private static List<Request> readRequests(String path) throws Exception {
+        BufferedReader reader = (path != null)
+                ? Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+        List<Request> requests = new ArrayList<>();
+        try (reader) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                try {
+                    requests.add(parse(number, line));
+                } catch (Exception e) {
+                    Log.warn("BATCH", "Skipping line " + number + " (" + line + "): " + e.getMessage());
+                }
+            }
+        }
+        return requests;
+    }
+
+    private static Request parse(int number, String line) {
+        double target;
+        RiskLevel risk;
+        if (line.startsWith("{")) {
+            JSONObject json = new JSONObject(line);
+            target = json.getDouble("target");
+            risk = RiskLevel.valueOf(json.optString("risk", "SAFE").toUpperCase(Locale.ROOT));
+        } else {
+            String[] parts = line.split("[\\s,;]+");
+            target = Double.parseDouble(parts[0]);
+            risk = (parts.length > 1) ? RiskLevel.valueOf(parts[1].toUpperCase(Locale.ROOT)) : RiskLevel.SAFE;
+        }
+        if (!BetLogicService.isValidTarget(target)) {
+            throw new IllegalArgumentException("target odd must be a number above 1.0");
+        }
+        return new Request(number, target, risk);
+    }
+}
@@ -0,0 +1,83 @@
+package diag;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// bounded ring of log entries (ArrayBlockingQueue is a circular array) drained by one daemon thread,
+// so callers never wait for the console lock - when the ring is full INFO/DEBUG lines are dropped and
+// counted, WARN/ERROR are written directly so nothing important gets lost
+final class AsyncAppender {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final int BATCH = 256;
+
+    private final BlockingQueue<Log.Entry> ring;
+    private final Counter dropped = Metrics.counter("log_dropped_total");
+    private final StringBuilder line = new StringBuilder(256);
+    volatile boolean stderrOnly;
+
+    AsyncAppender(int capacity) {
+        this.ring = new ArrayBlockingQueue<>(capacity);
+
+        Thread writer = new Thread(this::drainLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // whatever is still queued when the jvm exits is written out
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "log-flush"));
+    }
+
+    void append(Log.Entry entry) {
+        if (ring.offer(entry)) return;
+        if (entry.level().compareTo(Log.Level.WARN) >= 0) {
+            write(List.of(entry));
+        } else {
+            dropped.inc();
+        }
+    }
+
+    private void drainLoop() {
+        List<Log.Entry> batch = new ArrayList<>(BATCH);
+        while (true) {
+            try {
+                Log.Entry first = ring.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                ring.drainTo(batch, BATCH - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void flush() {
+        List<Log.Entry> rest = new ArrayList<>();
+        ring.drainTo(rest);
+        write(rest);
+    }
+
+    // one println per entry under our own lock, out and err are flushed once per batch
+    private synchronized void write(List<Log.Entry> entries) {
+        if (entries.isEmpty()) return;
+        for (Log.Entry e : entries) {
+            line.setLength(0);
+            TIME.formatTo(Instant.ofEpochMilli(e.timeMillis()), line);
+            line.append(' ').append(e.level());
+            for (int i = e.level().name().length(); i < 5; i++) line.append(' ');
+            line.append(" [").append(e.thread()).append("] [").append(e.tag()).append("] ").append(e.message());
+
+            PrintStream out = (stderrOnly || e.level().compareTo(Log.Level.WARN) >= 0) ? System.err : System.out;
+            out.println(line);
+            if (e.error() != null) e.error().printStackTrace(out);
+        }
+        System.out.flush();
+        System.err.flush();
+    }
+}
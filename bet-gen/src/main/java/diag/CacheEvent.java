@@ -0,0 +1,20 @@
+package diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// where FetchPipeline found a league: memory, disk, stale (refresh started) or miss (download)
+@Name("betgen.CacheLookup")
+@Label("Odds Cache Lookup")
+@Category({"BetGen", "Pipeline"})
+public class CacheEvent extends jdk.jfr.Event {
+    @Label("League")
+    public String league;
+
+    @Label("Result")
+    public String result;
+
+    @Label("Fixtures")
+    public int fixtures;
+}
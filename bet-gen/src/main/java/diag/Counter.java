@@ -0,0 +1,22 @@
+package diag;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// monotonic count, LongAdder so hot paths on many threads do not fight over one cache line
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {}
+
+    public void inc() {
+        value.increment();
+    }
+
+    public void add(long n) {
+        value.add(n);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
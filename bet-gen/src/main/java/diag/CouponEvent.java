@@ -0,0 +1,25 @@
+package diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("betgen.CouponBuild")
+@Label("Coupon Build")
+@Category({"BetGen", "Pipeline"})
+public class CouponEvent extends jdk.jfr.Event {
+    @Label("Candidates")
+    public int candidates;
+
+    @Label("Target Odd")
+    public double targetOdd;
+
+    @Label("Legs")
+    public int legs;
+
+    @Label("Total Odd")
+    public double totalOdd;
+
+    @Label("Optimizer Used")
+    public boolean optimized;
+}
@@ -0,0 +1,28 @@
+package diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// one odds api download, from sending the request until the body stream is closed
+@Name("betgen.Fetch")
+@Label("Odds API Fetch")
+@Category({"BetGen", "Pipeline"})
+public class FetchEvent extends jdk.jfr.Event {
+    @Label("League")
+    public String league;
+
+    @Label("HTTP Status")
+    public int status;
+
+    @Label("Body Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Body Complete")
+    public boolean complete;
+
+    @Label("Tokens Remaining")
+    public int tokensRemaining;
+}
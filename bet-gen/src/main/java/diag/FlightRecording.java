@@ -0,0 +1,43 @@
+package diag;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+// continuous JFR recording, turned on with --jfr (or jfr.enabled=true in application.properties)
+// the last jfr.max.age.minutes (default 60) are kept and written to the file when the app exits,
+// a running session can also be dumped from JMC / jcmd <pid> JFR.dump
+public final class FlightRecording {
+    private static Recording recording;
+
+    private FlightRecording() {}
+
+    public static synchronized void start(Path destination, Duration maxAge) {
+        if (recording != null) return;
+        try {
+            Path parent = destination.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+
+            Recording r = new Recording(Configuration.getConfiguration("default"));
+            r.setName("bet-gen");
+            r.setToDisk(true);
+            r.setMaxAge(maxAge);
+            r.setDumpOnExit(true);
+            r.setDestination(destination);
+            r.start();
+            recording = r;
+            Log.info("JFR", "Continuous recording started, dump on exit: " + destination.toAbsolutePath());
+        } catch (Exception e) {
+            Log.warn("JFR", "Could not start recording: " + e.getMessage());
+        }
+    }
+
+    public static void start(String fileName, long maxAgeMinutes) {
+        Path target = Paths.get(System.getProperty("user.home"), ".betaidashboard", fileName);
+        start(target, Duration.ofMinutes(maxAgeMinutes));
+    }
+}
@@ -0,0 +1,90 @@
+package diag;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// log-linear buckets in microseconds, the same layout idea as HdrHistogram:
+// values below 64us get their own bucket, above that every power of two is split into 32 buckets,
+// so any percentile is within ~3% of the real value, recording is one array increment
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS; // 64
+    private static final int HALF = SUB_COUNT / 2;      // 32
+    private static final int MAX_BIT = 40;               // ~12 days in microseconds, more is clamped
+    private static final long MAX_VALUE = (1L << (MAX_BIT + 1)) - 1;
+    private static final int BUCKETS = SUB_COUNT + (MAX_BIT - SUB_BITS + 1) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {}
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, Math.min(nanos / 1_000, MAX_VALUE));
+        counts.incrementAndGet(index(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    // start comes from System.nanoTime()
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    private static int index(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - SUB_BITS + 1;
+        return SUB_COUNT + (shift - 1) * HALF + (int) ((v >>> shift) - HALF);
+    }
+
+    // middle of the bucket, that is where the ~3% comes from
+    private static long valueAt(int index) {
+        if (index < SUB_COUNT) return index;
+        int k = index - SUB_COUNT;
+        int shift = k / HALF + 1;
+        long sub = k % HALF + HALF;
+        long low = sub << shift;
+        long high = ((sub + 1) << shift) - 1;
+        return (low + high) / 2;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double sumSeconds() {
+        return sumMicros.sum() / 1e6;
+    }
+
+    public double meanMillis() {
+        long n = count.sum();
+        return (n == 0) ? 0.0 : sumMicros.sum() / 1e3 / n;
+    }
+
+    public double maxMillis() {
+        return maxMicros.get() / 1e3;
+    }
+
+    // q in 0..1, e.g. 0.99
+    public double percentileMillis(double q) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0.0;
+
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(valueAt(i), maxMicros.get()) / 1e3;
+        }
+        return maxMillis();
+    }
+}
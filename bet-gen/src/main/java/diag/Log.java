@@ -0,0 +1,69 @@
+package diag;
+
+import service.ConfigLoader;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+// app logging: callers only build the message when the level is on, writing happens on the "log-writer" thread
+// level comes from -Dlog.level or log.level in application.properties (DEBUG, INFO, WARN, ERROR; default INFO)
+public final class Log {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    // one line of output, formatted by the writer thread
+    record Entry(long timeMillis, Level level, String thread, String tag, String message, Throwable error) {}
+
+    private static final Level THRESHOLD = readLevel();
+    private static final AsyncAppender APPENDER = new AsyncAppender(8192);
+
+    private Log() {}
+
+    private static Level readLevel() {
+        String value = System.getProperty("log.level");
+        if (value == null) value = ConfigLoader.getProperty("log.level");
+        if (value == null) return Level.INFO;
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    // headless runs write results to stdout, every log line then goes to stderr
+    public static void redirectToStderr() {
+        APPENDER.stderrOnly = true;
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(THRESHOLD) >= 0;
+    }
+
+    public static void debug(String tag, Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) append(Level.DEBUG, tag, message.get(), null);
+    }
+
+    public static void info(String tag, String message) {
+        if (isEnabled(Level.INFO)) append(Level.INFO, tag, message, null);
+    }
+
+    public static void info(String tag, Supplier<String> message) {
+        if (isEnabled(Level.INFO)) append(Level.INFO, tag, message.get(), null);
+    }
+
+    public static void warn(String tag, String message) {
+        if (isEnabled(Level.WARN)) append(Level.WARN, tag, message, null);
+    }
+
+    public static void warn(String tag, Supplier<String> message) {
+        if (isEnabled(Level.WARN)) append(Level.WARN, tag, message.get(), null);
+    }
+
+    public static void error(String tag, String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) append(Level.ERROR, tag, message, error);
+    }
+
+    private static void append(Level level, String tag, String message, Throwable error) {
+        APPENDER.append(new Entry(System.currentTimeMillis(), level, Thread.currentThread().getName(), tag, message, error));
+    }
+}
@@ -0,0 +1,71 @@
+package diag;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+// process wide registry, names follow the prometheus style (odds_api_request_seconds, form_cache_hits_total)
+// lookups are meant to happen once into a static field, not on every call
+public final class Metrics {
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, DoubleSupplier> gauges = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private Metrics() {}
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    // value is read when the metrics are shown or scraped, registering again replaces the supplier
+    public static void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public static double gaugeValue(String name) {
+        DoubleSupplier value = gauges.get(name);
+        return (value != null) ? value.getAsDouble() : Double.NaN;
+    }
+
+    // hits / (hits + misses), 0 before the first lookup
+    public static double ratio(Counter hits, Counter misses) {
+        long h = hits.get();
+        long total = h + misses.get();
+        return (total == 0) ? 0.0 : (double) h / total;
+    }
+
+    // plain text exposition (prometheus text format), histograms are written as summaries
+    public static String render() {
+        StringBuilder sb = new StringBuilder(2048);
+        counters.forEach((name, c) -> {
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            sb.append(name).append(' ').append(c.get()).append('\n');
+        });
+        gauges.forEach((name, g) -> {
+            sb.append("# TYPE ").append(name).append(" gauge\n");
+            sb.append(name).append(' ').append(format(g.getAsDouble())).append('\n');
+        });
+        histograms.forEach((name, h) -> {
+            sb.append("# TYPE ").append(name).append(" summary\n");
+            for (double q : QUANTILES) {
+                sb.append(name).append("{quantile=\"").append(q).append("\"} ")
+                        .append(format(h.percentileMillis(q) / 1e3)).append('\n');
+            }
+            sb.append(name).append("_sum ").append(format(h.sumSeconds())).append('\n');
+            sb.append(name).append("_count ").append(h.count()).append('\n');
+        });
+        return sb.toString();
+    }
+
+    private static String format(double v) {
+        if (Double.isNaN(v)) return "NaN";
+        return String.format(Locale.ROOT, "%.6f", v);
+    }
+}
@@ -0,0 +1,42 @@
+package diag;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// optional scrape endpoint, enabled with metrics.port in application.properties
+// bound to localhost only: curl http://127.0.0.1:<port>/metrics
+public final class MetricsEndpoint {
+    private static HttpServer server;
+
+    private MetricsEndpoint() {}
+
+    public static synchronized void start(int port) {
+        if (server != null) return;
+        try {
+            HttpServer s = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            s.createContext("/metrics", exchange -> {
+                byte[] body = Metrics.render().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (var out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            s.start();
+            server = s;
+            Log.info("METRICS", "Serving http://127.0.0.1:" + port + "/metrics");
+        } catch (Exception e) {
+            Log.warn("METRICS", "Could not start endpoint on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    // the dispatcher thread is not a daemon, so this has to run when the app closes
+    public static synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        server = null;
+    }
+}
@@ -0,0 +1,19 @@
+package diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("betgen.Parse")
+@Label("Parse Matches")
+@Category({"BetGen", "Pipeline"})
+public class ParseEvent extends jdk.jfr.Event {
+    @Label("Source")
+    public String source;
+
+    @Label("Fixtures")
+    public int fixtures;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,17 @@
+package diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// ListView items replaced on the FX thread
+@Name("betgen.Render")
+@Label("List Population")
+@Category({"BetGen", "Pipeline"})
+public class RenderEvent extends jdk.jfr.Event {
+    @Label("View")
+    public String view;
+
+    @Label("Rows")
+    public int rows;
+}
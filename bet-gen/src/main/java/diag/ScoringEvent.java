@@ -0,0 +1,22 @@
+package diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("betgen.Scoring")
+@Label("Candidate Scoring")
+@Category({"BetGen", "Pipeline"})
+public class ScoringEvent extends jdk.jfr.Event {
+    @Label("Risk Level")
+    public String risk;
+
+    @Label("Fixtures")
+    public int fixtures;
+
+    @Label("Options Evaluated")
+    public int evaluated;
+
+    @Label("Candidates Kept")
+    public int kept;
+}
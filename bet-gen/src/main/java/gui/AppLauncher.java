@@ -1,7 +1,29 @@
 package gui;
 
+import cli.HeadlessRunner;
+import diag.FlightRecording;
+import diag.MetricsEndpoint;
+import service.ConfigLoader;
+
+import java.util.Arrays;
+
 public class AppLauncher {
     public static void main(String[] args) {
+        // --jfr: continuous flight recording of the session, see diag.FlightRecording
+        if (Arrays.asList(args).contains("--jfr") || "true".equalsIgnoreCase(ConfigLoader.getProperty("jfr.enabled"))) {
+            String minutes = ConfigLoader.getProperty("jfr.max.age.minutes");
+            FlightRecording.start("bet-gen.jfr", (minutes != null) ? Long.parseLong(minutes.trim()) : 60);
+        }
+        // metrics.port: plain text metrics for scraping, see diag.Metrics
+        String metricsPort = ConfigLoader.getProperty("metrics.port");
+        if (metricsPort != null && !metricsPort.isBlank()) {
+            MetricsEndpoint.start(Integer.parseInt(metricsPort.trim()));
+        }
+        // --headless: batch coupons from a request file, javafx is never started
+        if (Arrays.asList(args).contains("--headless")) {
+            HeadlessRunner.main(args);
+            return;
+        }
         BetGui.main(args);
     }
 }
@@ -1,8 +1,13 @@
 package gui;
 
 import api.OddsApiClient;
+import http.ApiServer;
+import diag.Log;
+import diag.MetricsEndpoint;
+import diag.RenderEvent;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -11,51 +16,107 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
-import model.BetOption;
-import model.Match;
+import model.Coupon;
+import model.CouponLeg;
+import model.MatchAnalysis;
 import model.RiskLevel;
 import service.BetLogicService;
+import service.CandidateIndex;
+import service.ConfigLoader;
 import service.DataParser;
+import service.FetchPipeline;
+import service.GeminiChatService;
+import service.HistoricalDataService;
+import service.MatchStore;
+import service.SnapshotService;
 import service.StatsService;
 import java.util.ArrayList;
 import java.util.List;
-
-import static api.CacheManager.loadCache;
-import static api.CacheManager.saveCache;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class BetGui extends Application {
     private OddsApiClient client;
     private DataParser parser;
     private BetLogicService logicService;
+    private CandidateIndex candidateIndex;
+    private FetchPipeline fetchPipeline;
+    // shared between detail pages and chat, so caches and http connections are reused
+    private HistoricalDataService historyService;
+    private GeminiChatService chatService;
+    private StatsService statsService;
 
-    private final ListView<String> mainListView = new ListView<>();
-    private final List<Match> allMatches = new ArrayList<>();
+    private final ListView<ListRow> mainListView = new ListView<>();
+    private final MatchStore matchStore = new MatchStore();
     private final Label totalOddLabel = new Label("TOTAL ODD: 0.00");
+    private final ProgressBar taskProgress = new ProgressBar();
+
+    // coupon / analysis run currently in the background, a new click cancels it
+    private Task<?> runningTask;
+    // one worker for coupon / analysis tasks, a new click cancels the running one and queues behind it
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "coupon-worker");
+        t.setDaemon(true);
+        return t;
+    });
 
     private final StackPane contentStack = new StackPane();
     private VBox listViewContainer;
     private SidebarComponent sidebar;
 
     // objects for chat expert
-    private List<BetOption> lastGeneratedCoupon = new ArrayList<>();
+    private Coupon lastGeneratedCoupon = Coupon.EMPTY;
 
     @Override
     public void init() {
         try {
             client = new OddsApiClient();
             parser = new DataParser();
-            logicService = new BetLogicService(new StatsService());
+            statsService = new StatsService();
+            logicService = new BetLogicService(statsService);
+            candidateIndex = CandidateIndex.create(logicService, matchStore);
+            fetchPipeline = new FetchPipeline(client, parser, matchStore, statsService);
+            fetchPipeline.addRefreshListener(league -> Platform.runLater(() -> onLeagueRefreshed(league)));
+            historyService = new HistoricalDataService();
+            chatService = new GeminiChatService();
+        } catch (Exception e) {
+            Log.error("APP", "Critical error while starting services", e);
+        }
+        startApi();
+    }
+
+    // api.port: local json api on the same data as the window, see http.ApiServer
+    // optional extra, a bad value only costs the api and the window starts anyway
+    private void startApi() {
+        String apiPort = ConfigLoader.getProperty("api.port");
+        if (apiPort == null || apiPort.isBlank() || candidateIndex == null) return;
+        int port;
+        try {
+            port = Integer.parseInt(apiPort.trim());
+        } catch (NumberFormatException e) {
+            Log.warn("API", "api.port invalid (" + apiPort.trim() + "), local api disabled.");
+            return;
+        }
+        try {
+            ApiServer.start(port, SnapshotService.create(logicService, candidateIndex, matchStore));
         } catch (Exception e) {
-            System.err.println(">>> [CRITICAL ERROR]");
+            Log.warn("API", "Could not start local api on api.port " + port + ": " + e.getMessage());
         }
     }
 
+    @Override
+    public void stop() {
+        MetricsEndpoint.stop();
+        worker.shutdownNow();
+        ApiServer.stop();
+    }
+
     @Override
     public void start(Stage primaryStage) {
         try {
             javafx.scene.text.Font.loadFont(getClass().getResourceAsStream("/fonts/Inter_18pt-Medium.ttf"), 13);
         } catch (Exception e) {
-            System.err.println("Could not load any font: " + e.getMessage());
+            Log.warn("UI", "Could not load any font: " + e.getMessage());
         }
 
         HeaderComponent titleContent = new HeaderComponent();
@@ -69,7 +130,7 @@ public class BetGui extends Application {
         sidebar.fetchBtn.setOnAction(e -> handleFetch());
         sidebar.analysisBtn.setOnAction(e -> handleAnalysis());
         sidebar.couponBtn.setOnAction(e -> handleCouponGeneration());
-        sidebar.aiBotBtn.setOnAction(e -> contentStack.getChildren().setAll(new ChatView(contentStack, listViewContainer, lastGeneratedCoupon)));
+        sidebar.aiBotBtn.setOnAction(e -> contentStack.getChildren().setAll(new ChatView(contentStack, listViewContainer, lastGeneratedCoupon, chatService)));
 
         // -- TOTAL ODD BOX ---
         Image cashImg = new Image(getClass().getResourceAsStream("/images/money-bag.png"));
@@ -83,16 +144,27 @@ public class BetGui extends Application {
         totalOddBox.getStyleClass().add("summary-label");
         totalOddLabel.setStyle("-fx-text-fill: #58a6ff; -fx-background-color: transparent; -fx-border-color: transparent; -fx-effect: none;");
 
+        taskProgress.setMaxWidth(Double.MAX_VALUE);
+        taskProgress.setVisible(false);
+        taskProgress.setManaged(false);
+
         listViewContainer = new VBox(15);
-        listViewContainer.getChildren().addAll(mainListView, totalOddBox);
+        listViewContainer.getChildren().addAll(mainListView, taskProgress, totalOddBox);
         VBox.setVgrow(mainListView, Priority.ALWAYS);
 
         contentStack.getChildren().add(listViewContainer);
 
         // listener -> waits for clicking at the exact match
         mainListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal != null && (newVal.startsWith("BET_CARD:") || newVal.startsWith("ANALYSIS_CARD:"))) {
-                contentStack.getChildren().setAll(new MatchDetailView(contentStack, listViewContainer, newVal));
+            MatchDetailView detailView = switch (newVal) {
+                case ListRow.BetCard b -> new MatchDetailView(contentStack, listViewContainer,
+                        b.leg().match(), b.leg().prediction(), historyService, statsService);
+                case ListRow.AnalysisCard a -> new MatchDetailView(contentStack, listViewContainer,
+                        a.analysis().match(), a.analysis().prediction(), historyService, statsService);
+                case null, default -> null;
+            };
+            if (detailView != null) {
+                contentStack.getChildren().setAll(detailView);
                 Platform.runLater(() -> mainListView.getSelectionModel().clearSelection());
             }
         });
@@ -123,64 +195,124 @@ public class BetGui extends Application {
     }
 
     private void handleFetch() {
-        mainListView.getItems().setAll("INFO:Checking cache & downloading data...");
-        new Thread(() -> {
-            try {
-                List<String> leagueKeys = List.of("soccer_epl", "soccer_spain_la_liga", "soccer_italy_serie_a", "soccer_germany_bundesliga", "soccer_france_ligue_one");
-                allMatches.clear();
-
-                for (String key : leagueKeys) {
-                    String data = client.getRawData(key);
-                    allMatches.addAll(parser.parseMatches(data));
-                }
-
-                Platform.runLater(() -> {
-                    mainListView.getItems().clear();
-                    mainListView.getItems().add("INFO:Success! Loaded " + allMatches.size() + " matches.");
-                });
-            } catch (Exception ex) {
-                Platform.runLater(() -> {
-                    mainListView.getItems().clear();
-                    mainListView.getItems().add("WARN:Error: " + ex.getMessage());
-                });
+        mainListView.getItems().setAll(ListRow.info("Checking cache & downloading data..."));
+        fetchPipeline.fetchAll().whenComplete((ignored, ex) -> Platform.runLater(() -> {
+            mainListView.getItems().clear();
+            if (ex == null) {
+                mainListView.getItems().add(ListRow.info("Success! Loaded " + matchStore.size() + " matches."));
+                historyService.prefetchSlate(matchStore.getWindow(BetLogicService.slateWindow()));
+            } else {
+                Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+                mainListView.getItems().add(ListRow.warn("Error: " + cause.getMessage()));
             }
-        }).start();
+        }));
+    }
+
+    // fresh odds arrived for a stale league, only a status screen is updated so a shown coupon stays put
+    private void onLeagueRefreshed(String league) {
+        var items = mainListView.getItems();
+        if (items.size() == 1 && items.get(0) instanceof ListRow.Status) {
+            items.setAll(ListRow.info("Refreshed " + league + ". Loaded " + matchStore.size() + " matches."));
+        }
     }
 
     private void handleAnalysis() {
-        if (allMatches.isEmpty()) {
-            mainListView.getItems().setAll("WARN:No data found. Please download data first!");
+        if (matchStore.isEmpty()) {
+            mainListView.getItems().setAll(ListRow.warn("No data found. Please download data first!"));
             return;
         }
-        mainListView.getItems().clear();
-        mainListView.getItems().add("HEADER:  FULL MATCH ANALYSIS & BTTS  ");
-        String analysisRaw = logicService.getAllMatchesAnalysis(allMatches);
-        for (String line : analysisRaw.split("\n")) {
-            if (line.contains("|")) mainListView.getItems().add("ANALYSIS_CARD:" + line);
-        }
+
+        Task<List<ListRow>> task = new Task<>() {
+            @Override
+            protected List<ListRow> call() {
+                updateProgress(-1, 1);
+                List<MatchAnalysis> analysis = logicService.analyzeMatches(matchStore.getWindow(BetLogicService.slateWindow()));
+
+                List<ListRow> rows = new ArrayList<>(analysis.size() + 1);
+                rows.add(new ListRow.Header("  FULL MATCH ANALYSIS & BTTS  "));
+                for (int i = 0; i < analysis.size(); i++) {
+                    if (isCancelled()) return rows;
+                    rows.add(ListRow.AnalysisCard.of(analysis.get(i)));
+                    if (i % 256 == 0) updateProgress(i, analysis.size());
+                }
+                return rows;
+            }
+        };
+        // one batched update of the list instead of an add() per row
+        task.setOnSucceeded(e -> showRows("analysis", task.getValue()));
+        task.setOnFailed(e -> mainListView.getItems().setAll(ListRow.warn("Error: " + task.getException().getMessage())));
+        runInBackground(task);
     }
 
     private void handleCouponGeneration() {
-        if (allMatches.isEmpty()) {
-            mainListView.getItems().setAll("WARN:No data found. Please download data first!");
+        if (matchStore.isEmpty()) {
+            mainListView.getItems().setAll(ListRow.warn("No data found. Please download data first!"));
             return;
         }
+
+        double target;
         try {
-            double target = Double.parseDouble(sidebar.oddInput.getText().replace(",", "."));
-            RiskLevel risk = sidebar.riskCombo.getValue();
-            List<BetOption> coupon = logicService.generateSmartCoupon(allMatches, target, risk);
-            this.lastGeneratedCoupon = coupon;
-            mainListView.getItems().clear();
-            mainListView.getItems().add("HEADER:  YOUR SMART COUPON  ");
-            double totalOdd = 1.0;
-            for (BetOption b : coupon) {
-                mainListView.getItems().add("BET_CARD:" + b.getName() + "|" + b.getPrice());
-                totalOdd *= b.getPrice();
-            }
-            totalOddLabel.setText("TOTAL ODD: " + String.format("%.2f", totalOdd));
+            target = Double.parseDouble(sidebar.oddInput.getText().replace(",", "."));
         } catch (Exception ex) {
-            mainListView.getItems().setAll("Invalid input: " + ex.getMessage());
+            mainListView.getItems().setAll(ListRow.warn("Invalid input: " + ex.getMessage()));
+            return;
+        }
+        if (!BetLogicService.isValidTarget(target)) {
+            mainListView.getItems().setAll(ListRow.warn("Invalid input: target odd must be a number above 1.0"));
+            return;
         }
+        RiskLevel risk = sidebar.riskCombo.getValue();
+
+        Task<Coupon> task = new Task<>() {
+            @Override
+            protected Coupon call() {
+                updateProgress(-1, 1);
+                // scores are kept between requests, refreshes only re-score fixtures whose odds moved
+                return candidateIndex.generateSmartCoupon(target, risk);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            Coupon coupon = task.getValue();
+            this.lastGeneratedCoupon = coupon;
+
+            List<ListRow> rows = new ArrayList<>(coupon.legs().size() + 1);
+            rows.add(new ListRow.Header("  YOUR SMART COUPON  "));
+            for (CouponLeg leg : coupon.legs()) {
+                rows.add(ListRow.BetCard.of(leg));
+            }
+            showRows("coupon", rows);
+            totalOddLabel.setText("TOTAL ODD: " + String.format("%.2f", coupon.totalOdd()));
+        });
+        task.setOnFailed(e -> mainListView.getItems().setAll(ListRow.warn("Error: " + task.getException().getMessage())));
+        runInBackground(task);
+    }
+
+    private void showRows(String view, List<ListRow> rows) {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        mainListView.getItems().setAll(rows);
+        event.view = view;
+        event.rows = rows.size();
+        event.commit();
+    }
+
+    // scoring and formatting never run on the FX thread, results come back through the task handlers
+    private void runInBackground(Task<?> task) {
+        if (runningTask != null) runningTask.cancel(true);
+        runningTask = task;
+
+        taskProgress.progressProperty().bind(task.progressProperty());
+        taskProgress.setVisible(true);
+        taskProgress.setManaged(true);
+        task.runningProperty().addListener((obs, wasRunning, isRunning) -> {
+            if (!isRunning && runningTask == task) {
+                taskProgress.progressProperty().unbind();
+                taskProgress.setVisible(false);
+                taskProgress.setManaged(false);
+            }
+        });
+
+        worker.execute(task);
     }
 
     public static void main(String[] args) { launch(args); }
@@ -8,14 +8,13 @@ import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import model.BetOption;
+import model.Coupon;
+import model.CouponLeg;
+import model.Match;
 import service.GeminiChatService;
-import java.util.List;
 
 public class ChatView extends VBox {
-    private final GeminiChatService chatService = new GeminiChatService();
-
-    public ChatView(StackPane stack, VBox originalView, List<BetOption> lastGeneratedCoupon) {
+    public ChatView(StackPane stack, VBox originalView, Coupon lastGeneratedCoupon, GeminiChatService chatService) {
         super(20);
         this.getStyleClass().add("detail-container");
         this.setPadding(new Insets(30));
@@ -58,8 +57,12 @@ public class ChatView extends VBox {
                 context.append("Użytkownik nie wygenerował jeszcze kuponu.");
             } else {
                 context.append("Aktualny kupon do analizy:\n");
-                for (BetOption b : lastGeneratedCoupon) {
-                    context.append("- ").append(b.getName()).append(" | Kurs: ").append(b.getPrice()).append("\n");
+                for (CouponLeg leg : lastGeneratedCoupon.legs()) {
+                    Match m = leg.match();
+                    context.append("- ").append(m.getHomeTeam()).append(" vs ").append(m.getAwayTeam())
+                            .append(" (").append(m.getTime().toLocalDate()).append(") [").append(leg.marketLabel()).append("]")
+                            .append(" [BTTS: ").append((int) (leg.prediction().bttsProb() * 100)).append("%]")
+                            .append(" | Kurs: ").append(leg.price()).append("\n");
                 }
             }
 
@@ -0,0 +1,39 @@
+package gui;
+
+import model.CouponLeg;
+import model.Match;
+import model.MatchAnalysis;
+
+// typed items of the main list, everything the cell shows is computed once when the row is created
+public sealed interface ListRow {
+
+    record Header(String title) implements ListRow {}
+
+    record BetCard(CouponLeg leg, String matchName, String details, String odd) implements ListRow {
+
+        static BetCard of(CouponLeg leg) {
+            Match m = leg.match();
+            String details = m.getTime().toLocalDate() + "   |   " + leg.marketLabel();
+            if (!leg.tag().isEmpty()) details += "  " + leg.tag();
+            details += "   |   BTTS: " + (int) (leg.prediction().bttsProb() * 100) + "%";
+            return new BetCard(leg, m.getHomeTeam() + " vs " + m.getAwayTeam(), details, String.valueOf(leg.price()));
+        }
+    }
+
+    record AnalysisCard(MatchAnalysis analysis, String title, String stats, String risk) implements ListRow {
+
+        static AnalysisCard of(MatchAnalysis analysis) {
+            Match m = analysis.match();
+            String title = "[" + m.getTime().toLocalDate() + "] " + m.getHomeTeam() + " vs " + m.getAwayTeam();
+            String stats = "BTTS: " + (int) (analysis.bttsProb() * 100) + "%   |   "
+                    + String.format("Exp. Goals: %.2f", analysis.expectedGoals()) + "   ";
+            return new AnalysisCard(analysis, title, stats, analysis.status());
+        }
+    }
+
+    record Status(String message, boolean warning) implements ListRow {}
+
+    static ListRow info(String message) { return new Status(message, false); }
+
+    static ListRow warn(String message) { return new Status(message, true); }
+}
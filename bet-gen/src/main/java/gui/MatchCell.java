@@ -10,125 +10,150 @@ import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.util.Callback;
 
-public class MatchCell implements Callback<ListView<String>, ListCell<String>> {
+public class MatchCell implements Callback<ListView<ListRow>, ListCell<ListRow>> {
     @Override
-    public ListCell<String> call(ListView<String> lv) {
-        return new ListCell<>() {
-            @Override
-            protected void updateItem(String item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setGraphic(null);
-                    setText(null);
-                    setStyle("-fx-background-color: transparent;");
-                    // -=- HEADER -=-
-                } else if (item.startsWith("HEADER:")) {
-                    String title = item.replace("HEADER:", "");
-                    Label headerLabel = new Label(title);
-                    headerLabel.getStyleClass().add("header-text");
-
-                    HBox headerBox = new HBox(headerLabel);
-                    headerBox.getStyleClass().add("coupon-header-box");
-                    headerBox.setAlignment(Pos.CENTER);
+    public ListCell<ListRow> call(ListView<ListRow> lv) {
+        return new RowCell();
+    }
 
-                    setGraphic(headerBox);
-                    setText(null);
-                    // -=- COUPON -=-
-                } else if (item.startsWith("BET_CARD:")) {
-                    String content = item.replace("BET_CARD:", "");
-                    String[] parts = content.split("\\|");
+    // node graphs are built once per cell (lazily, per row type), updateItem only swaps texts
+    private static class RowCell extends ListCell<ListRow> {
+        private HBox headerBox;
+        private Label headerLabel;
+
+        private HBox betCard;
+        private Label betName;
+        private Label betStats;
+        private Label betOdd;
+
+        private HBox analysisCard;
+        private Label analysisTitle;
+        private Label analysisStats;
+        private Label riskBadge;
+
+        private HBox statusBox;
+        private Label statusLabel;
+
+        @Override
+        protected void updateItem(ListRow item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(null);
+            if (empty || item == null) {
+                setGraphic(null);
+                setStyle("-fx-background-color: transparent;");
+                return;
+            }
+            setStyle(null);
 
-                    HBox card = new HBox(15);
-                    card.getStyleClass().add("coupon-card");
-                    card.setAlignment(Pos.CENTER_LEFT);
+            switch (item) {
+                // -=- HEADER -=-
+                case ListRow.Header h -> {
+                    if (headerBox == null) buildHeader();
+                    headerLabel.setText(h.title());
+                    setGraphic(headerBox);
+                }
+                // -=- COUPON -=-
+                case ListRow.BetCard b -> {
+                    if (betCard == null) buildBetCard();
+                    betName.setText(b.matchName());
+                    betStats.setText(b.details());
+                    betOdd.setText(b.odd());
+                    setGraphic(betCard);
+                }
+                // -=- BTTS ANALYSIS -=-
+                case ListRow.AnalysisCard a -> {
+                    if (analysisCard == null) buildAnalysisCard();
+                    analysisTitle.setText(a.title());
+                    analysisStats.setText(a.stats());
+                    riskBadge.setText(a.risk());
+                    riskBadge.getStyleClass().removeAll("badge-high", "badge-medium", "badge-low");
+                    riskBadge.getStyleClass().add("badge-" + a.risk().toLowerCase());
+                    setGraphic(analysisCard);
+                }
+                // -=- DOWNLOAD INFO -=-
+                case ListRow.Status s -> {
+                    if (statusBox == null) buildStatus();
+                    statusLabel.setText(s.message());
+                    statusBox.getStyleClass().removeAll("download-info", "download-warn");
+                    statusBox.getStyleClass().add(s.warning() ? "download-warn" : "download-info");
+                    setGraphic(statusBox);
+                }
+            }
+        }
 
-                    Label icon = new Label("⚽");
-                    icon.getStyleClass().add("card-icon");
+        private void buildHeader() {
+            headerLabel = new Label();
+            headerLabel.getStyleClass().add("header-text");
 
-                    String fullInfo = parts[0];
-                    int splitIndex = fullInfo.indexOf("(");
+            headerBox = new HBox(headerLabel);
+            headerBox.getStyleClass().add("coupon-header-box");
+            headerBox.setAlignment(Pos.CENTER);
+        }
 
-                    String matchName = (splitIndex != -1) ? fullInfo.substring(0, splitIndex).trim() : fullInfo;
-                    String subDetails = (splitIndex != -1) ? fullInfo.substring(splitIndex).trim() : "";
+        private void buildBetCard() {
+            betCard = new HBox(15);
+            betCard.getStyleClass().add("coupon-card");
+            betCard.setAlignment(Pos.CENTER_LEFT);
 
-                    subDetails = subDetails.replace("(", "").replace(")", "   |   ").replace("[", "").replace("]", "   |   ");
-                    subDetails = subDetails.substring(0, subDetails.length() - 4);
+            Label icon = new Label("⚽");
+            icon.getStyleClass().add("card-icon");
 
-                    VBox textContainer = new VBox(2);
-                    textContainer.setAlignment(Pos.CENTER_LEFT);
+            VBox textContainer = new VBox(2);
+            textContainer.setAlignment(Pos.CENTER_LEFT);
 
-                    Label nameLabel = new Label(matchName);
-                    nameLabel.getStyleClass().add("card-name");
+            betName = new Label();
+            betName.getStyleClass().add("card-name");
 
-                    Label statsLabel = new Label(subDetails);
-                    statsLabel.getStyleClass().add("card-stats");
+            betStats = new Label();
+            betStats.getStyleClass().add("card-stats");
 
-                    textContainer.getChildren().addAll(nameLabel, statsLabel);
+            textContainer.getChildren().addAll(betName, betStats);
 
-                    Region spacer = new Region();
-                    HBox.setHgrow(spacer, Priority.ALWAYS);
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
 
-                    Label odd = new Label(parts[1]);
-                    odd.getStyleClass().add("card-odd");
+            betOdd = new Label();
+            betOdd.getStyleClass().add("card-odd");
 
-                    card.getChildren().addAll(icon, textContainer, spacer, odd);
-                    setGraphic(card);
-                    setText(null);
-                    // -=- BTTS ANALYSIS -=-
-                } else if (item.startsWith("ANALYSIS_CARD:")) {
-                    String raw = item.replace("ANALYSIS_CARD:", "");
-                    String[] parts = raw.split("\\|");
+            betCard.getChildren().addAll(icon, textContainer, spacer, betOdd);
+        }
 
-                    HBox card = new HBox(12);
-                    card.getStyleClass().add("analysis-card");
-                    card.setAlignment(Pos.CENTER_LEFT);
+        private void buildAnalysisCard() {
+            analysisCard = new HBox(12);
+            analysisCard.getStyleClass().add("analysis-card");
+            analysisCard.setAlignment(Pos.CENTER_LEFT);
 
-                    Label icon = new Label("📊");
+            Label icon = new Label("📊");
 
-                    VBox textContainer = new VBox(3);
-                    textContainer.setMinWidth(Region.USE_PREF_SIZE + 5);
+            VBox textContainer = new VBox(3);
+            textContainer.setMinWidth(Region.USE_PREF_SIZE + 5);
 
-                    Label matchLabel = new Label(parts[0].trim());
-                    matchLabel.getStyleClass().add("card-name-small");
+            analysisTitle = new Label();
+            analysisTitle.getStyleClass().add("card-name-small");
 
-                    String statsStr = (parts.length >= 3) ? parts[1].trim() + "   |   " + parts[2].trim()+ "   " : "";
-                    Label statsLabel = new Label(statsStr);
-                    statsLabel.getStyleClass().add("card-stats");
-                    statsLabel.setMinWidth(Region.USE_PREF_SIZE);
+            analysisStats = new Label();
+            analysisStats.getStyleClass().add("card-stats");
+            analysisStats.setMinWidth(Region.USE_PREF_SIZE);
 
-                    textContainer.getChildren().addAll(matchLabel, statsLabel);
+            textContainer.getChildren().addAll(analysisTitle, analysisStats);
 
-                    Region spacer = new Region();
-                    HBox.setHgrow(spacer, Priority.ALWAYS);
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
 
-                    String riskText = raw.contains("HIGH") ? "HIGH" : (raw.contains("LOW") ? "LOW" : "MEDIUM");
-                    Label riskBadge = new Label(riskText);
-                    riskBadge.getStyleClass().addAll("risk-badge", "badge-" + riskText.toLowerCase());
+            riskBadge = new Label();
+            riskBadge.getStyleClass().add("risk-badge");
 
-                    card.getChildren().addAll(icon, textContainer, spacer, riskBadge);
-                    setGraphic(card);
-                    setText(null);
-                    // -=- DOWNLOAD INFO -=-
-                } else if (item.startsWith("INFO:") || item.startsWith("WARN:")) {
-                    boolean isInfo = item.startsWith("INFO:");
-                    String message = item.replace(isInfo ? "INFO:" : "WARN:", "");
+            analysisCard.getChildren().addAll(icon, textContainer, spacer, riskBadge);
+        }
 
-                    HBox statusBox = new HBox(10);
-                    statusBox.setAlignment(Pos.CENTER);
-                    statusBox.getStyleClass().add(isInfo ? "download-info" : "download-warn");
+        private void buildStatus() {
+            statusBox = new HBox(10);
+            statusBox.setAlignment(Pos.CENTER);
 
-                    Label msgLabel = new Label(message);
-                    msgLabel.getStyleClass().add("download-message-text");
+            statusLabel = new Label();
+            statusLabel.getStyleClass().add("download-message-text");
 
-                    statusBox.getChildren().addAll(msgLabel);
-                    setGraphic(statusBox);
-                    setText(null);
-                } else {
-                    setGraphic(null);
-                    setText(item);
-                    getStyleClass().add("log-line");
-                }
-            }
-        };
+            statusBox.getChildren().add(statusLabel);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package gui;
 
+import diag.Log;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -7,35 +8,19 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.*;
+import model.Match;
+import model.MatchPrediction;
 import service.HistoricalDataService;
 import service.StatsService;
 import java.util.List;
 
 public class MatchDetailView extends ScrollPane {
 
-    public MatchDetailView(StackPane stack, VBox originalView, String itemData) {
-        String home = "";
-        String away = "";
-        String datePart = "N/A";
-        String matchName = "";
-
-        // Smart parsing for both formats (verified logic)
-        if (itemData.startsWith("ANALYSIS_CARD:")) {
-            String raw = itemData.replace("ANALYSIS_CARD:", "");
-            datePart = raw.contains("[") ? raw.substring(raw.indexOf("[") + 1, raw.indexOf("]")) : "N/A";
-            String titlePart = raw.split("\\|")[0];
-            matchName = titlePart.replace("[" + datePart + "]", "").trim();
-        } else if (itemData.startsWith("BET_CARD:")) {
-            String raw = itemData.replace("BET_CARD:", "");
-            matchName = raw.split("\\(")[0].trim();
-            if (raw.contains("(") && raw.contains(")")) {
-                datePart = raw.substring(raw.indexOf("(") + 1, raw.indexOf(")")).trim();
-            }
-        }
-
-        String[] teams = matchName.split(" vs ");
-        home = teams[0].trim();
-        away = (teams.length > 1) ? teams[1].trim() : "";
+    public MatchDetailView(StackPane stack, VBox originalView, Match match, MatchPrediction prediction,
+                           HistoricalDataService history, StatsService stats) {
+        String home = match.getHomeTeam();
+        String away = match.getAwayTeam();
+        String datePart = match.getTime().toLocalDate().toString();
 
         // Main container for details
         VBox detailLayout = new VBox(25);
@@ -66,8 +51,8 @@ public class MatchDetailView extends ScrollPane {
         VBox predictionBox = new VBox(5);
         predictionBox.getStyleClass().add("prediction-card");
 
-        StatsService stats = new StatsService();
-        double probDecimal = stats.predictBTTSProb(home, away); // Returns value like 0.60
+        // prediction comes from the coupon / analysis row, nothing is recomputed here
+        double probDecimal = prediction.bttsProb(); // Returns value like 0.60
 
         Label probValue = new Label(String.format("%.1f%%", probDecimal * 100));
         Label probTitle = new Label("AI BTTS PROBABILITY");
@@ -82,7 +67,7 @@ public class MatchDetailView extends ScrollPane {
 
         // predictBTTSProb already returns decimal
         double fairOdd = 1.0 / Math.max(probDecimal, 0.01);
-        double expectedGoals = stats.predictMatchTotal(home, away);
+        double expectedGoals = prediction.expectedGoals();
         double bookieOdd; // bookie odds based on expected goals
 
         if (expectedGoals > 3.2) {
@@ -145,29 +130,36 @@ public class MatchDetailView extends ScrollPane {
         final String homeFinal = home;
         final String awayFinal = away;
 
-        // Fetch form data in the background
-        new Thread(() -> {
-            HistoricalDataService history = new HistoricalDataService();
-            List<HistoricalDataService.MatchResult> homeF = history.getTeamForm(homeFinal);
-            List<HistoricalDataService.MatchResult> awayF = history.getTeamForm(awayFinal);
-
+        // Fetch form data in the background, teams prefetched after download are instant cache hits
+        history.getTeamFormAsync(homeFinal).thenAcceptBoth(history.getTeamFormAsync(awayFinal), (homeF, awayF) -> {
             Platform.runLater(() -> {
-                formContainer.getChildren().clear();
-                Label formTitle = new Label("LAST 5 MATCHES PERFORMANCE");
-                formTitle.setStyle("-fx-text-fill: #c9d1d9; -fx-font-weight: 800; -fx-font-size: 13px;");
-
                 if (homeF.isEmpty() && awayF.isEmpty()) {
-                    Label err = new Label("No data available (Rate Limit reached?)");
-                    err.setStyle("-fx-text-fill: #cf222e;");
-                    formContainer.getChildren().addAll(formTitle, err);
+                    showFormError(formContainer, "No data available (Rate Limit reached?)");
                 } else {
-                    formContainer.getChildren().addAll(formTitle,
+                    formContainer.getChildren().setAll(createFormTitle(),
                             createFormRow(homeFinal, homeF.stream().map(r -> r.res()).toList()),
                             createFormRow(awayFinal, awayF.stream().map(r -> r.res()).toList())
                     );
                 }
             });
-        }).start();
+        }).exceptionally(ex -> {
+            // without this the page would stay on the loading label forever
+            Log.warn("FORM", () -> "Form lookup failed for " + homeFinal + " - " + awayFinal + ": " + ex.getMessage());
+            Platform.runLater(() -> showFormError(formContainer, "Could not load team form"));
+            return null;
+        });
+    }
+
+    private Label createFormTitle() {
+        Label formTitle = new Label("LAST 5 MATCHES PERFORMANCE");
+        formTitle.setStyle("-fx-text-fill: #c9d1d9; -fx-font-weight: 800; -fx-font-size: 13px;");
+        return formTitle;
+    }
+
+    private void showFormError(VBox formContainer, String message) {
+        Label err = new Label(message);
+        err.setStyle("-fx-text-fill: #cf222e;");
+        formContainer.getChildren().setAll(createFormTitle(), err);
     }
 
     private void addVisualRow(GridPane g, String label, String hVal, String aVal, int row) {
@@ -0,0 +1,75 @@
+package gui;
+
+import diag.LatencyHistogram;
+import diag.Metrics;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+// small live view of the metrics registry at the bottom of the sidebar, refreshed every 2 seconds
+public class MetricsPanel extends VBox {
+    private final GridPane grid = new GridPane();
+    private int rows;
+
+    private final Label oddsApi = addRow("Odds API p50/p99");
+    private final Label footballApi = addRow("Form API p50/p99");
+    private final Label gemini = addRow("Gemini p50/p99");
+    private final Label oddsCache = addRow("Odds cache hits");
+    private final Label formCache = addRow("Form cache hits");
+    private final Label tokens = addRow("Tokens left");
+    private final Label scoring = addRow("Scoring");
+
+    public MetricsPanel() {
+        super(5);
+        Label header = new Label("PERFORMANCE");
+        header.getStyleClass().add("sidebar-header");
+
+        grid.setHgap(10);
+        grid.setVgap(3);
+        this.setAlignment(Pos.TOP_LEFT);
+        this.getChildren().addAll(header, grid);
+
+        refresh();
+        Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(2), e -> refresh()));
+        timeline.setCycleCount(Timeline.INDEFINITE);
+        timeline.play();
+    }
+
+    private Label addRow(String name) {
+        Label nameLabel = new Label(name);
+        nameLabel.getStyleClass().add("metrics-name");
+        Label value = new Label("-");
+        value.getStyleClass().add("metrics-value");
+        grid.add(nameLabel, 0, rows);
+        grid.add(value, 1, rows);
+        rows++;
+        return value;
+    }
+
+    private void refresh() {
+        oddsApi.setText(latency(Metrics.histogram("odds_api_request_seconds")));
+        footballApi.setText(latency(Metrics.histogram("football_api_request_seconds")));
+        gemini.setText(latency(Metrics.histogram("gemini_request_seconds")));
+        oddsCache.setText(percent(Metrics.gaugeValue("odds_cache_hit_ratio")));
+        formCache.setText(percent(Metrics.gaugeValue("form_cache_hit_ratio")));
+
+        double remaining = Metrics.gaugeValue("odds_tokens_remaining");
+        tokens.setText((Double.isNaN(remaining) || remaining < 0) ? "-" : String.valueOf((long) remaining));
+
+        double perSecond = Metrics.gaugeValue("scoring_fixtures_per_second");
+        scoring.setText((Double.isNaN(perSecond) || perSecond <= 0) ? "-" : String.format("%,.0f fixt/s", perSecond));
+    }
+
+    private static String latency(LatencyHistogram h) {
+        if (h.count() == 0) return "-";
+        return String.format("%.0f / %.0f ms", h.percentileMillis(0.5), h.percentileMillis(0.99));
+    }
+
+    private static String percent(double ratio) {
+        return Double.isNaN(ratio) ? "-" : String.format("%.0f%%", ratio * 100);
+    }
+}
@@ -19,6 +19,7 @@ public class SidebarComponent extends VBox {
     public final Button couponBtn = new Button("Generate Smart Coupon");
     public final Button aiBotBtn = new Button();
     public final Button surebetBtn = new Button("Find Surebets");
+    public final MetricsPanel metricsPanel = new MetricsPanel();
 
     public SidebarComponent() {
         // -=- LAYOUT -=-
@@ -116,6 +117,8 @@ public class SidebarComponent extends VBox {
                 fetchBtn, analysisBtn, couponBtn,
                 space,
                 new Separator(),
+                metricsPanel,
+                new Separator(),
                 botBox
         );
     }
@@ -0,0 +1,194 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import diag.Counter;
+import diag.LatencyHistogram;
+import diag.Log;
+import diag.Metrics;
+import model.Coupon;
+import model.MatchAnalysis;
+import model.RiskLevel;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import service.BetLogicService;
+import service.JsonExport;
+import service.MatchSnapshot;
+import service.SnapshotService;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// local json api for other tools, enabled with api.port in application.properties (localhost only)
+//   GET /api/coupon?target=5.0&risk=SAFE
+//   GET /api/analysis            (?format=text for the same text as the app)
+//   GET /api/prediction?home=Arsenal&away=Chelsea
+//   GET /api/snapshot            version and size of the data being served
+//   GET /metrics                 same output as diag.MetricsEndpoint
+// one virtual thread per exchange, every request reads the current MatchSnapshot and never waits for a refresh
+public final class ApiServer {
+    private static final LatencyHistogram LATENCY = Metrics.histogram("api_request_seconds");
+    private static final Counter ERRORS = Metrics.counter("api_errors_total");
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    private ApiServer() {}
+
+    public static synchronized void start(int port, SnapshotService snapshots) {
+        if (server != null) return;
+        try {
+            HttpServer s = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            s.setExecutor(executor);
+
+            s.createContext("/api/coupon", timed(exchange -> coupon(exchange, snapshots)));
+            s.createContext("/api/analysis", timed(exchange -> analysis(exchange, snapshots)));
+            s.createContext("/api/prediction", timed(exchange -> prediction(exchange, snapshots)));
+            s.createContext("/api/snapshot", timed(exchange -> {
+                MatchSnapshot snapshot = snapshots.current();
+                sendJson(exchange, 200, header(snapshot));
+            }));
+            s.createContext("/metrics", timed(exchange ->
+                    send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", Metrics.render())));
+            s.start();
+            server = s;
+            Log.info("API", "Serving http://127.0.0.1:" + port + "/api");
+        } catch (Exception e) {
+            if (executor != null) executor.shutdown();
+            executor = null;
+            String reason = (e instanceof BindException) ? "port already in use" : e.getMessage();
+            Log.warn("API", "Could not start api on api.port " + port + ": " + reason);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    private static void coupon(HttpExchange exchange, SnapshotService snapshots) throws IOException {
+        Map<String, String> query = query(exchange);
+        double target;
+        RiskLevel risk;
+        try {
+            target = Double.parseDouble(query.getOrDefault("target", ""));
+            risk = RiskLevel.valueOf(query.getOrDefault("risk", "SAFE").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, "expected ?target=<odd>&risk=SAFE|MEDIUM|RISKY");
+            return;
+        }
+        if (!BetLogicService.isValidTarget(target)) {
+            sendError(exchange, 400, "target must be a number greater than 1.0");
+            return;
+        }
+        MatchSnapshot snapshot = snapshots.current();
+        Coupon coupon = snapshots.generateSmartCoupon(snapshot, target, risk);
+        sendJson(exchange, 200, JsonExport.coupon(coupon)
+                .put("target", target)
+                .put("risk", risk.name())
+                .put("snapshot", snapshot.version()));
+    }
+
+    private static void analysis(HttpExchange exchange, SnapshotService snapshots) throws IOException {
+        MatchSnapshot snapshot = snapshots.current();
+        if ("text".equals(query(exchange).get("format"))) {
+            send(exchange, 200, "text/plain; charset=utf-8", snapshot.analysisText());
+            return;
+        }
+        JSONArray rows = new JSONArray();
+        for (MatchAnalysis a : snapshot.analysis()) rows.put(JsonExport.analysis(a));
+        sendJson(exchange, 200, header(snapshot).put("matches", rows));
+    }
+
+    private static void prediction(HttpExchange exchange, SnapshotService snapshots) throws IOException {
+        Map<String, String> query = query(exchange);
+        String home = query.get("home");
+        String away = query.get("away");
+        if (home == null || away == null) {
+            sendError(exchange, 400, "expected ?home=<team>&away=<team>");
+            return;
+        }
+        MatchSnapshot snapshot = snapshots.current();
+        MatchAnalysis found = snapshot.find(home, away);
+        if (found == null) {
+            sendError(exchange, 404, "no fixture " + home + " vs " + away + " in the current slate");
+            return;
+        }
+        sendJson(exchange, 200, JsonExport.analysis(found).put("snapshot", snapshot.version()));
+    }
+
+    private static JSONObject header(MatchSnapshot snapshot) {
+        return new JSONObject()
+                .put("snapshot", snapshot.version())
+                .put("createdAt", snapshot.createdAt().toString())
+                .put("matchCount", snapshot.matchCount());
+    }
+
+    // GET only, latency and errors go to the metrics, unexpected failures become a 500
+    private static HttpHandler timed(HttpHandler handler) {
+        return exchange -> {
+            long start = System.nanoTime();
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", "GET");
+                    sendError(exchange, 405, "only GET is supported");
+                    return;
+                }
+                handler.handle(exchange);
+            } catch (Exception e) {
+                Log.error("API", "Request " + exchange.getRequestURI() + " failed", e);
+                try {
+                    sendError(exchange, 500, "internal error");
+                } catch (Exception ignored) {
+                    // headers were already sent
+                }
+            } finally {
+                exchange.close();
+                LATENCY.recordSince(start);
+            }
+        };
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (status >= 500) ERRORS.inc();
+        sendJson(exchange, status, new JSONObject().put("error", message));
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, JSONObject json) throws IOException {
+        send(exchange, status, "application/json; charset=utf-8", json.toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
@@ -0,0 +1,19 @@
+package model;
+
+import java.util.List;
+
+public record Coupon(List<CouponLeg> legs) {
+    public static final Coupon EMPTY = new Coupon(List.of());
+
+    public Coupon {
+        legs = List.copyOf(legs);
+    }
+
+    public double totalOdd() {
+        double total = 1.0;
+        for (CouponLeg leg : legs) total *= leg.price();
+        return total;
+    }
+
+    public boolean isEmpty() { return legs.isEmpty(); }
+}
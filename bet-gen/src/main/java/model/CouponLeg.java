@@ -0,0 +1,19 @@
+package model;
+
+// one pick of a generated coupon, the match and prediction are kept so views do not recompute them
+public record CouponLeg(Match match, BetOption option, double score, MatchPrediction prediction) {
+
+    public double price() { return option.getPrice(); }
+
+    // e.g. "Arsenal" or "Over 2.5"
+    public String marketLabel() {
+        return (option.getPoint() != null) ? option.getName() + " " + option.getPoint() : option.getName();
+    }
+
+    // super safe and high goals info in good matches, empty when nothing stands out
+    public String tag() {
+        if (option.getPrice() < 1.40) return "{super safe}";
+        if (marketLabel().contains("Over 2.5") && score > 3.0) return "{high goals}";
+        return "";
+    }
+}
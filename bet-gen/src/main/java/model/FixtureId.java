@@ -0,0 +1,9 @@
+package model;
+
+// identity of a fixture across refreshes, odds are not part of it
+public record FixtureId(String home, String away, long kickoff) {
+
+    public static FixtureId of(Match m) {
+        return new FixtureId(m.getHomeTeam(), m.getAwayTeam(), m.getKickoff());
+    }
+}
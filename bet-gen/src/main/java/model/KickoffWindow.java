@@ -0,0 +1,26 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+// [from, until) in UTC epoch seconds, kickoff times are stored in UTC so this is the same
+// check as comparing match.getTime().toLocalDate() with the days, without building dates
+public record KickoffWindow(long from, long until) {
+
+    // first..last day, both included
+    public static KickoffWindow days(LocalDate first, LocalDate last) {
+        return new KickoffWindow(first.atStartOfDay().toEpochSecond(ZoneOffset.UTC),
+                last.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    // today and the following days, nextDays(3) = today .. today + 2
+    public static KickoffWindow nextDays(int count) {
+        LocalDate today = LocalDate.now();
+        return days(today, today.plusDays(count - 1));
+    }
+
+    public boolean contains(Match m) {
+        long kickoff = m.getKickoff();
+        return kickoff >= from && kickoff < until;
+    }
+}
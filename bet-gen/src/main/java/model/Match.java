@@ -1,7 +1,9 @@
 package model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true) // ignores other data from API that we do not have in this class
@@ -21,20 +23,63 @@ public class Match {
 
     private List<BetOption> odds;
 
+    // league this fixture was downloaded for (e.g. soccer_epl), set by MatchStore
+    @JsonIgnore
+    private String leagueKey;
+
+    // commence time as UTC epoch seconds, kept in sync with time for cheap window checks
+    @JsonIgnore
+    private long kickoff;
+
+    // primitive copy of odds for the scoring loop, built on first use and dropped when odds or names change
+    @JsonIgnore
+    private OddsColumns oddsColumns;
+
+    // resolved from team names after parsing (see StatsService.resolveTeams)
+    @JsonIgnore
+    private TeamStats homeStats;
+    @JsonIgnore
+    private TeamStats awayStats;
+
     public Match() {}
 
     // getters and setters
     public String getHomeTeam() { return homeTeam; }
-    public void setHomeTeam(String homeTeam) { this.homeTeam = homeTeam; }
+    public void setHomeTeam(String homeTeam) { this.homeTeam = homeTeam; this.oddsColumns = null; }
 
     public String getAwayTeam() { return awayTeam; }
-    public void setAwayTeam(String awayTeam) { this.awayTeam = awayTeam; }
+    public void setAwayTeam(String awayTeam) { this.awayTeam = awayTeam; this.oddsColumns = null; }
 
+    public String getSportTitle() { return sportTitle; }
     public void setSportTitle(String sportTitle) { this.sportTitle = sportTitle; }
 
     public LocalDateTime getTime() { return time; }
-    public void setTime(LocalDateTime time) { this.time = time; }
+    public void setTime(LocalDateTime time) {
+        this.time = time;
+        this.kickoff = (time != null) ? time.toEpochSecond(ZoneOffset.UTC) : 0L;
+    }
+
+    public long getKickoff() { return kickoff; }
+
+    public String getLeagueKey() { return leagueKey; }
+    public void setLeagueKey(String leagueKey) { this.leagueKey = leagueKey; }
 
     public List<BetOption> getOdds() { return odds; }
-    public void setOdds(List<BetOption> odds) { this.odds = odds; }
+    public void setOdds(List<BetOption> odds) { this.odds = odds; this.oddsColumns = null; }
+
+    // OddsColumns has only final fields, so a racy first build from two threads is harmless
+    public OddsColumns getOddsColumns() {
+        OddsColumns columns = oddsColumns;
+        if (columns == null) {
+            columns = OddsColumns.of(homeTeam, awayTeam, odds);
+            oddsColumns = columns;
+        }
+        return columns;
+    }
+
+    public TeamStats getHomeStats() { return homeStats; }
+    public void setHomeStats(TeamStats homeStats) { this.homeStats = homeStats; }
+
+    public TeamStats getAwayStats() { return awayStats; }
+    public void setAwayStats(TeamStats awayStats) { this.awayStats = awayStats; }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package model;
+
+// one row of the BTTS analysis, status is HIGH / MEDIUM / LOW
+public record MatchAnalysis(Match match, MatchPrediction prediction, String status) {
+    public double bttsProb() { return prediction.bttsProb(); }
+    public double expectedGoals() { return prediction.expectedGoals(); }
+}
@@ -0,0 +1,15 @@
+package model;
+
+import java.util.List;
+
+// what one league refresh changed, "changed" holds the new objects of fixtures whose odds moved
+public record MatchDelta(String leagueKey, List<Match> added, List<Match> changed, List<Match> removed) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + changed.size() + removed.size();
+    }
+}
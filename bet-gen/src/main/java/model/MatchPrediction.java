@@ -0,0 +1,4 @@
+package model;
+
+// everything the scoring needs for one fixture, computed once and cached by StatsService
+public record MatchPrediction(double bttsProb, double expectedGoals, double homeWinRate, double awayWinRate) {}
@@ -0,0 +1,76 @@
+package model;
+
+import java.util.List;
+
+// the odds of one match as parallel primitive arrays, index i is match.getOdds().get(i)
+// names are classified once here so scoring never touches strings or boxed points
+public final class OddsColumns {
+
+    // market codes
+    public static final byte H2H = 0;
+    public static final byte TOTALS = 1;
+
+    // outcome side codes
+    public static final byte HOME = 0;
+    public static final byte AWAY = 1;
+    public static final byte DRAW = 2;
+    public static final byte OVER = 3;
+    public static final byte UNDER = 4;
+    public static final byte OTHER = 5;
+
+    private static final OddsColumns EMPTY = new OddsColumns(new byte[0], new byte[0], new double[0], new double[0]);
+
+    public final byte[] market;
+    public final byte[] side;
+    public final double[] price;
+    public final double[] point; // NaN when the option has no line
+
+    private OddsColumns(byte[] market, byte[] side, double[] price, double[] point) {
+        this.market = market;
+        this.side = side;
+        this.price = price;
+        this.point = point;
+    }
+
+    public int size() {
+        return price.length;
+    }
+
+    public static OddsColumns of(String homeTeam, String awayTeam, List<BetOption> odds) {
+        if (odds == null || odds.isEmpty()) return EMPTY;
+
+        int n = odds.size();
+        byte[] market = new byte[n];
+        byte[] side = new byte[n];
+        double[] price = new double[n];
+        double[] point = new double[n];
+
+        String home = (homeTeam != null) ? homeTeam.toLowerCase() : "";
+        String away = (awayTeam != null) ? awayTeam.toLowerCase() : "";
+
+        for (int i = 0; i < n; i++) {
+            BetOption o = odds.get(i);
+            price[i] = o.getPrice();
+            point[i] = (o.getPoint() != null) ? o.getPoint() : Double.NaN;
+            market[i] = (o.getPoint() != null) ? TOTALS : H2H;
+            side[i] = classify(o.getName(), home, away);
+        }
+        return new OddsColumns(market, side, price, point);
+    }
+
+    // same order as the old name checks in the scoring: team names first, then over/under
+    private static byte classify(String name, String home, String away) {
+        if (name == null) return OTHER;
+        String betName = name.toLowerCase();
+        if (nameMatches(betName, home)) return HOME;
+        if (nameMatches(betName, away)) return AWAY;
+        if (betName.startsWith("over")) return OVER;
+        if (betName.startsWith("under")) return UNDER;
+        if (betName.equals("draw")) return DRAW;
+        return OTHER;
+    }
+
+    private static boolean nameMatches(String betName, String team) {
+        return betName.equals(team) || team.contains(betName) || betName.contains(team);
+    }
+}
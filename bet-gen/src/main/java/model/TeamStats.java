@@ -0,0 +1,4 @@
+package model;
+
+// team numbers from stats.csv, resolved once per match so scoring does no name lookups
+public record TeamStats(double avgTotalGoals, double bttsRate, double winRate) {}
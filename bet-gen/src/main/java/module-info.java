@@ -6,6 +6,8 @@ module bet.gen {
     requires com.fasterxml.jackson.datatype.jsr310;
     requires java.net.http;
     requires java.desktop;
+    requires jdk.jfr;
+    requires jdk.httpserver;
 
     opens gui to javafx.graphics, javafx.fxml;
     opens model to com.fasterxml.jackson.databind;
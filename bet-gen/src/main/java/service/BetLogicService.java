@@ -1,48 +1,83 @@
 package service;
 
+import diag.Counter;
+import diag.CouponEvent;
+import diag.LatencyHistogram;
+import diag.Log;
+import diag.Metrics;
+import diag.ScoringEvent;
 import model.BetOption;
+import model.Coupon;
+import model.CouponLeg;
+import model.KickoffWindow;
 import model.Match;
+import model.MatchAnalysis;
+import model.MatchPrediction;
+import model.OddsColumns;
 import model.RiskLevel;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
 
 public class BetLogicService {
+    // optimizer work cap in candidates x odd buckets, ~20-50 ms on a laptop core
+    private static final long OPTIMIZER_MAX_CELLS = 20_000_000L;
+    // below this many matches the fork/join overhead costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    // shared with CandidateIndex, throughput = fixtures / total scoring time
+    static final LatencyHistogram SCORING_LATENCY = Metrics.histogram("scoring_seconds");
+    static final Counter SCORED_FIXTURES = Metrics.counter("scoring_fixtures_total");
+    static {
+        Metrics.gauge("scoring_fixtures_per_second", () -> {
+            double seconds = SCORING_LATENCY.sumSeconds();
+            return (seconds > 0) ? SCORED_FIXTURES.get() / seconds : 0.0;
+        });
+    }
+
     private final StatsService statsService;
 
     public BetLogicService(StatsService statsService) {
         this.statsService = statsService;
     }
 
-    public List<BetOption> generateSmartCoupon(List<Match> matches, double targetOdd, RiskLevel riskLevel) {
-        List<SmartOption> candidates = new ArrayList<>();
-        LocalDate today = LocalDate.now();
-        LocalDate threeDays = today.plusDays(2);
-
-        System.out.println(">>> Starting analysis " + matches.size() + " matches (3 days)...");
-
-        for (Match match : matches) {
-            LocalDate matchDate = match.getTime().toLocalDate();
-            if (matchDate.isBefore(today) || matchDate.isAfter(threeDays)) {
-                continue;
-            }
-
-            for (BetOption option : match.getOdds()) {
-                if (!isOddInRiskRange(option.getPrice(), riskLevel)) {
-                    continue;
-                }
+    // every entry point (window, headless, http) checks the requested total odd with this first
+    public static boolean isValidTarget(double targetOdd) {
+        return targetOdd > 1.0 && Double.isFinite(targetOdd);
+    }
 
-                double score = calculateSafetyScore(match, option, riskLevel);
+    // today .. today + 2, the window used by coupons and the analysis
+    public static KickoffWindow slateWindow() {
+        return KickoffWindow.nextDays(3);
+    }
 
-                // odds after taxes
-                if (score > 0.65) {
-                    candidates.add(new SmartOption(match, option, score));
-                }
-            }
+    public Coupon generateSmartCoupon(List<Match> matches, double targetOdd, RiskLevel riskLevel) {
+        KickoffWindow window = slateWindow();
+
+        Log.info("COUPON", () -> "Starting analysis " + matches.size() + " matches (3 days)...");
+
+        ScoringEvent scoring = new ScoringEvent();
+        scoring.begin();
+        long start = System.nanoTime();
+        List<SmartOption> candidates = scoreCandidates(matches, riskLevel, window);
+        SCORING_LATENCY.recordSince(start);
+        SCORED_FIXTURES.add(matches.size());
+        scoring.end();
+        if (scoring.shouldCommit()) {
+            scoring.risk = riskLevel.name();
+            scoring.fixtures = matches.size();
+            scoring.evaluated = countOptions(matches, window);
+            scoring.kept = candidates.size();
+            scoring.commit();
         }
 
-        System.out.println(">>> Found " + candidates.size() + " candidates. Choosing the best...");
+        Log.info("COUPON", () -> "Found " + candidates.size() + " candidates. Choosing the best...");
 
         // sorting for super safe bets
         candidates.sort(Comparator.comparingDouble(SmartOption::score).reversed());
@@ -50,22 +85,69 @@ public class BetLogicService {
         return buildCouponFromCandidates(candidates, targetOdd);
     }
 
-    private double calculateSafetyScore(Match match, BetOption option, RiskLevel riskLevel) {
-        String home = match.getHomeTeam();
-        String away = match.getAwayTeam();
-        double odds = option.getPrice();
-        String betName = option.getName().toLowerCase();
+    // matches are split across cores, every worker fills its own buffer and the buffers are joined
+    // in encounter order - the list is exactly what the sequential loop would build
+    // the pool workers check the caller's interrupt flag, so a cancelled gui task stops the whole run
+    private List<SmartOption> scoreCandidates(List<Match> matches, RiskLevel riskLevel, KickoffWindow window) {
+        Thread caller = Thread.currentThread();
+        Stream<Match> stream = (matches.size() >= PARALLEL_THRESHOLD) ? matches.parallelStream() : matches.stream();
+        return stream.collect(
+                ArrayList::new,
+                (buffer, match) -> {
+                    checkCancelled(caller);
+                    if (window.contains(match)) scoreMatch(match, riskLevel, buffer);
+                },
+                ArrayList::addAll
+        );
+    }
+
+    // Task.cancel(true) interrupts the worker thread, scoring loops give up at the next match
+    static void checkCancelled(Thread caller) {
+        if (caller.isInterrupted()) throw new CancellationException("Scoring cancelled");
+    }
+
+    // only counted when a recording wants the scoring event
+    private static int countOptions(List<Match> matches, KickoffWindow window) {
+        int count = 0;
+        for (Match m : matches) {
+            if (window.contains(m)) count += m.getOddsColumns().size();
+        }
+        return count;
+    }
+
+    // every option of one match that passes the risk range and the score cut, no date check (see CandidateIndex)
+    // runs over the primitive odds columns, a BetOption is only looked up for options that are kept
+    void scoreMatch(Match match, RiskLevel riskLevel, List<SmartOption> buffer) {
+        OddsColumns odds = match.getOddsColumns();
+        MatchPrediction prediction = null;
+
+        for (int i = 0; i < odds.size(); i++) {
+            double price = odds.price[i];
+            if (!isOddInRiskRange(price, riskLevel)) {
+                continue;
+            }
+            if (prediction == null) prediction = statsService.predict(match);
+
+            double score = calculateSafetyScore(odds.side[i], price, odds.point[i], prediction, riskLevel);
+
+            // odds after taxes
+            if (score > 0.65) {
+                buffer.add(new SmartOption(match, match.getOdds().get(i), score));
+            }
+        }
+    }
 
-        double winRateHome = statsService.getWinRate(home);
-        double winRateAway = statsService.getWinRate(away);
-        double predictedGoals = statsService.predictMatchTotal(home, away);
-        double bttsProbStats = statsService.predictBTTSProb(home, away);
+    private double calculateSafetyScore(byte side, double odds, double point, MatchPrediction prediction, RiskLevel riskLevel) {
+        double winRateHome = prediction.homeWinRate();
+        double winRateAway = prediction.awayWinRate();
+        double predictedGoals = prediction.expectedGoals();
+        double bttsProbStats = prediction.bttsProb();
 
         double baseScore = 0.0;
 
         // --- winner h2h ---
-        if (checkNameMatch(betName, home) || checkNameMatch(betName, away)) {
-            boolean isHome = checkNameMatch(betName, home);
+        if (side == OddsColumns.HOME || side == OddsColumns.AWAY) {
+            boolean isHome = (side == OddsColumns.HOME);
             double winRate = isHome ? winRateHome : winRateAway;
             double expectedValue = winRate * odds;
 
@@ -82,8 +164,8 @@ public class BetLogicService {
         }
 
         // ---  goals (Over) ---
-        else if (betName.startsWith("over") && option.getPoint() != null) {
-            double line = option.getPoint();
+        else if (side == OddsColumns.OVER && !Double.isNaN(point)) {
+            double line = point;
 
             // goals close to over 2,5
             if (line >= 2.0 && line <= 2.75) {
@@ -117,51 +199,77 @@ public class BetLogicService {
         return baseScore;
     }
 
-    private boolean checkNameMatch(String betName, String teamName) {
-        String t = teamName.toLowerCase();
-        return betName.equals(t) || t.contains(betName) || betName.contains(t);
-    }
+    // candidates must already be sorted by score, best first
+    Coupon buildCouponFromCandidates(List<SmartOption> candidates, double targetOdd) {
+        CouponEvent event = new CouponEvent();
+        event.begin();
 
-    private List<BetOption> buildCouponFromCandidates(List<SmartOption> candidates, double targetOdd) {
-        List<BetOption> coupon = new ArrayList<>();
-        double currentTotalOdd = 1.0;
-        List<String> usedMatches = new ArrayList<>();
+        List<SmartOption> picks = optimizeCandidates(candidates, targetOdd);
+        event.optimized = (picks != null);
+        if (picks == null) picks = pickGreedy(candidates, targetOdd);
 
-        for (SmartOption smart : candidates) {
-            if (currentTotalOdd * smart.option().getPrice() > targetOdd * 1.25) continue;
+        List<CouponLeg> legs = new ArrayList<>(picks.size());
+        for (SmartOption smart : picks) {
+            legs.add(new CouponLeg(smart.match(), smart.option(), smart.score(), statsService.predict(smart.match())));
+        }
+        Coupon coupon = new Coupon(legs);
 
-            String matchKey = smart.match().getHomeTeam() + " vs " + smart.match().getAwayTeam();
+        event.candidates = candidates.size();
+        event.targetOdd = targetOdd;
+        event.legs = legs.size();
+        event.totalOdd = coupon.totalOdd();
+        event.commit();
+        return coupon;
+    }
 
-            if (!usedMatches.contains(matchKey)) {
-                String dateStr = smart.match().getTime().toLocalDate().toString();
-                String displayType = smart.option().getName();
-                if (smart.option().getPoint() != null) displayType += " " + smart.option().getPoint();
+    // best total score (above break-even) with one pick per match and the total odd between 95% and 125% of the target
+    private List<SmartOption> optimizeCandidates(List<SmartOption> candidates, double targetOdd) {
+        int n = candidates.size();
+        int[] group = new int[n];
+        double[] logOdd = new double[n];
+        double[] score = new double[n];
+        Map<String, Integer> matchIndex = new HashMap<>();
 
-                // BTTS info
-                double bttsProb = statsService.predictBTTSProb(smart.match().getHomeTeam(), smart.match().getAwayTeam());
-                int bttsPercent = (int) (bttsProb * 100);
-                String bttsInfo = " [BTTS: " + bttsPercent + "%]";
+        for (int i = 0; i < n; i++) {
+            SmartOption smart = candidates.get(i);
+            String matchKey = smart.match().getHomeTeam() + " vs " + smart.match().getAwayTeam();
+            group[i] = matchIndex.computeIfAbsent(matchKey, k -> matchIndex.size());
+            logOdd[i] = Math.log(smart.option().getPrice());
+            // the safety score is built as probability x odds (an expected return), so 1.0 is break-even.
+            // the dp maximises a sum: with the raw score every leg adds > 0.65, and the best coupon would
+            // always be the one with the most legs (many short odds filling the window). shifted by 1.0 a leg
+            // only adds its edge and a below-break-even leg costs score, so the leg count follows value.
+            // it is a constant per leg, so the order of candidates (and the greedy fallback) is unchanged
+            score[i] = smart.score() - 1.0;
+        }
 
-                // super safe and high goals info in good matches
-                if (smart.option().getPrice() < 1.40) displayType += "  {super safe}";
-                else if (displayType.contains("Over 2.5") && smart.score > 3.0) displayType += "  {high goals}";
+        int[] chosen = CouponOptimizer.optimize(group, logOdd, score, matchIndex.size(),
+                Math.log(targetOdd * 0.95), Math.log(targetOdd * 1.25), OPTIMIZER_MAX_CELLS);
+        if (chosen == null) return null;
 
-                String finalDisplayName = matchKey + " (" + dateStr + ") [" + displayType + "]" + bttsInfo;
+        List<SmartOption> picks = new ArrayList<>(chosen.length);
+        for (int i : chosen) picks.add(candidates.get(i));
+        return picks;
+    }
 
-                BetOption betToAdd = new BetOption(
-                        finalDisplayName,
-                        smart.option().getPrice(),
-                        smart.option().getPoint()
-                );
+    // old greedy scan, used when the target cannot be reached within the tolerance
+    private List<SmartOption> pickGreedy(List<SmartOption> candidates, double targetOdd) {
+        List<SmartOption> picks = new ArrayList<>();
+        double currentTotalOdd = 1.0;
+        Set<String> usedMatches = new HashSet<>();
 
-                coupon.add(betToAdd);
-                currentTotalOdd *= betToAdd.getPrice();
-                usedMatches.add(matchKey);
+        for (SmartOption smart : candidates) {
+            if (currentTotalOdd * smart.option().getPrice() > targetOdd * 1.25) continue;
+
+            String matchKey = smart.match().getHomeTeam() + " vs " + smart.match().getAwayTeam();
+            if (usedMatches.add(matchKey)) {
+                picks.add(smart);
+                currentTotalOdd *= smart.option().getPrice();
 
                 if (currentTotalOdd >= targetOdd * 0.95) break;
             }
         }
-        return coupon;
+        return picks;
     }
 
     private boolean isOddInRiskRange(double price, RiskLevel level) {
@@ -175,34 +283,41 @@ public class BetLogicService {
         };
     }
 
-    //  method for JavaFX that returns String instead of printing to console
-    public String getAllMatchesAnalysis(List<Match> matches) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("-=-=-=-=-=-=-=-=-=-=- FULL MATCH ANALYSIS & BTTS PROBABILITY -=-=-=-=-=-=-=-=-=-=-\n\n");
-
-        // sorting by highest percentage of btts
-        matches.sort((m1, m2) -> Double.compare(
-                statsService.predictBTTSProb(m2.getHomeTeam(), m2.getAwayTeam()),
-                statsService.predictBTTSProb(m1.getHomeTeam(), m1.getAwayTeam())
-        ));
-
-        LocalDate today = LocalDate.now();
-        LocalDate threeDays = today.plusDays(2);
+    // BTTS analysis of the next 3 days, highest probability first
+    public List<MatchAnalysis> analyzeMatches(List<Match> matches) {
+        List<MatchAnalysis> analysis = new ArrayList<>();
+        KickoffWindow window = slateWindow();
 
         for (Match m : matches) {
-            LocalDate matchDate = m.getTime().toLocalDate();
-
-            if (matchDate.isBefore(today) || matchDate.isAfter(threeDays)) {
+            if (!window.contains(m)) {
                 continue;
             }
-            double bttsProb = statsService.predictBTTSProb(m.getHomeTeam(), m.getAwayTeam());
-            double predictedGoals = statsService.predictMatchTotal(m.getHomeTeam(), m.getAwayTeam());
+            MatchPrediction prediction = statsService.predict(m);
+            double bttsProb = prediction.bttsProb();
 
             String status = (bttsProb > 0.60) ? "HIGH" : (bttsProb < 0.45) ? "LOW" : "MEDIUM";
+            analysis.add(new MatchAnalysis(m, prediction, status));
+        }
+
+        // sorting by highest percentage of btts
+        analysis.sort(Comparator.comparingDouble(MatchAnalysis::bttsProb).reversed());
+        return analysis;
+    }
+
+    //  method for JavaFX that returns String instead of printing to console
+    public String getAllMatchesAnalysis(List<Match> matches) {
+        return formatAnalysis(analyzeMatches(matches));
+    }
+
+    public static String formatAnalysis(List<MatchAnalysis> analysis) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("-=-=-=-=-=-=-=-=-=-=- FULL MATCH ANALYSIS & BTTS PROBABILITY -=-=-=-=-=-=-=-=-=-=-\n\n");
 
+        for (MatchAnalysis a : analysis) {
+            Match m = a.match();
             // appending each line to our string builder
             sb.append(String.format("[%s] %s vs %s | BTTS: %d%% | Exp. Goals: %.2f | %s\n\n",
-                    matchDate, m.getHomeTeam(), m.getAwayTeam(), (int)(bttsProb * 100), predictedGoals, status));
+                    m.getTime().toLocalDate(), m.getHomeTeam(), m.getAwayTeam(), (int)(a.bttsProb() * 100), a.expectedGoals(), a.status()));
         }
 
         sb.append("-=-=-=-=-=-=-=-=-=-=-=-=-=- END OF ANALYSIS -=-=-=-=-=-=-=-=-=-=-=-=-=-");
@@ -246,5 +361,5 @@ public class BetLogicService {
     }
      */
 
-    private record SmartOption(Match match, BetOption option, double score) {}
+    record SmartOption(Match match, BetOption option, double score) {}
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package service;
+
+import diag.Log;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// json snapshot + append-only journal: every cache change is one appended line ({"k": key, "v": value}),
+// the full snapshot is rewritten only every COMPACT_EVERY appends (and once at exit). all disk writes go through one thread
+class CacheJournal {
+    private static final int COMPACT_EVERY = 50;
+
+    // write-behind: callers never wait for the disk and writers never race each other
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cache-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final List<CacheJournal> JOURNALS = new CopyOnWriteArrayList<>();
+
+    static {
+        // queued appends are written and every journal folded into its snapshot before the jvm exits
+        Runtime.getRuntime().addShutdownHook(new Thread(CacheJournal::flushAll, "cache-flush"));
+    }
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    // full current state, only called from the writer thread during compaction
+    private final Supplier<JSONObject> snapshotSupplier;
+    private int appendsSinceCompaction;
+
+    CacheJournal(Path snapshotFile, Path journalFile, Supplier<JSONObject> snapshotSupplier) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.snapshotSupplier = snapshotSupplier;
+        JOURNALS.add(this);
+    }
+
+    private static void flushAll() {
+        WRITER.shutdown();
+        try {
+            if (!WRITER.awaitTermination(5, TimeUnit.SECONDS)) {
+                Log.warn("JOURNAL", "Cache writer did not finish, some changes stay in the journal.");
+                return;
+            }
+        } catch (InterruptedException e) {
+            return;
+        }
+        // writer thread is gone, so compacting here cannot race it
+        for (CacheJournal journal : JOURNALS) {
+            if (journal.appendsSinceCompaction == 0) continue;
+            try {
+                journal.compact();
+            } catch (Exception e) {
+                Log.warn("JOURNAL", "Cache flush error: " + e.getMessage());
+            }
+        }
+    }
+
+    // snapshot with the journal replayed on top, later lines win
+    JSONObject load() {
+        JSONObject state = new JSONObject();
+        try {
+            if (Files.exists(snapshotFile)) {
+                state = new JSONObject(Files.readString(snapshotFile));
+            }
+            if (Files.exists(journalFile)) {
+                List<String> lines = Files.readAllLines(journalFile, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    if (line.isBlank()) continue;
+                    try {
+                        JSONObject change = new JSONObject(line);
+                        state.put(change.getString("k"), change.get("v"));
+                    } catch (Exception e) {
+                        // half written last line after a crash - ignore it
+                    }
+                }
+                appendsSinceCompaction = lines.size();
+            }
+        } catch (Exception e) {
+            Log.warn("JOURNAL", "Cache load error: " + snapshotFile.getFileName());
+        }
+        return state;
+    }
+
+    void append(String key, Object value) {
+        String line = new JSONObject().put("k", key).put("v", value).toString() + "\n";
+        try {
+            WRITER.execute(() -> {
+                try {
+                    Files.writeString(journalFile, line, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    if (++appendsSinceCompaction >= COMPACT_EVERY) compact();
+                } catch (Exception e) {
+                    Log.warn("JOURNAL", "Cache write error: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // jvm is shutting down, the value stays in memory only and is fetched again next run
+        }
+    }
+
+    // rewrites the snapshot from memory and empties the journal, runs on the writer thread
+    private void compact() throws Exception {
+        Path tmp = Files.createTempFile(snapshotFile.getParent(), snapshotFile.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            snapshotSupplier.get().write(writer);
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(journalFile);
+        appendsSinceCompaction = 0;
+    }
+}
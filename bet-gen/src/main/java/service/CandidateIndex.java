@@ -0,0 +1,159 @@
+package service;
+
+import diag.Log;
+import diag.ScoringEvent;
+import model.Coupon;
+import model.FixtureId;
+import model.KickoffWindow;
+import model.Match;
+import model.MatchDelta;
+import model.RiskLevel;
+import service.BetLogicService.SmartOption;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// scored candidates kept between coupon requests, grouped by fixture per risk level
+// store refreshes only re-score the fixtures they touched instead of the whole slate
+public class CandidateIndex implements Consumer<MatchDelta> {
+
+    private record Ranked(SmartOption option, long seq) {}
+
+    private static final Comparator<Ranked> BEST_FIRST = Comparator
+            .comparingDouble((Ranked r) -> r.option().score()).reversed()
+            .thenComparingLong(Ranked::seq);
+
+    private static final class Level {
+        final Map<FixtureId, List<Ranked>> byFixture = new HashMap<>();
+    }
+
+    private final BetLogicService logic;
+    private final MatchStore store;
+    private final Map<RiskLevel, Level> levels = new EnumMap<>(RiskLevel.class);
+    private long sequence;
+
+    private CandidateIndex(BetLogicService logic, MatchStore store) {
+        this.logic = logic;
+        this.store = store;
+    }
+
+    // registers with the store only after the index is fully built
+    public static CandidateIndex create(BetLogicService logic, MatchStore store) {
+        CandidateIndex index = new CandidateIndex(logic, store);
+        store.addListener(index);
+        return index;
+    }
+
+    // store listener, levels nobody asked for yet are built on first use
+    @Override
+    public synchronized void accept(MatchDelta delta) {
+        if (levels.isEmpty()) return;
+        for (Map.Entry<RiskLevel, Level> e : levels.entrySet()) {
+            Level level = e.getValue();
+            for (Match m : delta.removed()) remove(level, m);
+            for (Match m : delta.changed()) remove(level, m);
+
+            ScoringEvent event = new ScoringEvent();
+            event.begin();
+            long start = System.nanoTime();
+            int kept = 0;
+            int evaluated = 0;
+            for (Match m : delta.changed()) {
+                evaluated += m.getOddsColumns().size();
+                kept += add(level, m, e.getKey());
+            }
+            for (Match m : delta.added()) {
+                evaluated += m.getOddsColumns().size();
+                kept += add(level, m, e.getKey());
+            }
+            commit(event, start, e.getKey(), delta.changed().size() + delta.added().size(), evaluated, kept);
+        }
+        Log.info("INDEX", () -> delta.leagueKey() + ": re-scored " + delta.size() + " fixtures.");
+    }
+
+    public Coupon generateSmartCoupon(double targetOdd, RiskLevel riskLevel) {
+        KickoffWindow window = BetLogicService.slateWindow();
+
+        List<SmartOption> candidates = ranked(riskLevel, window);
+        Log.info("COUPON", () -> "Found " + candidates.size() + " candidates. Choosing the best...");
+        return logic.buildCouponFromCandidates(candidates, targetOdd);
+    }
+
+    // candidates of the fixtures kicking off inside the window, best first, as an unmodifiable list
+    // the store's kickoff index picks the fixtures, so the rest of the index is never walked
+    synchronized List<SmartOption> ranked(RiskLevel riskLevel, KickoffWindow window) {
+        Level level = levels.computeIfAbsent(riskLevel, this::build);
+        List<Ranked> picked = new ArrayList<>();
+        Set<FixtureId> seen = new HashSet<>();
+        for (Match m : store.getWindow(window)) {
+            FixtureId id = FixtureId.of(m);
+            List<Ranked> entries = level.byFixture.get(id);
+            if (entries != null && seen.add(id)) picked.addAll(entries);
+        }
+        // best score first, insertion order breaks ties so equal scores stay stable
+        picked.sort(BEST_FIRST);
+
+        List<SmartOption> options = new ArrayList<>(picked.size());
+        for (Ranked r : picked) options.add(r.option());
+        return Collections.unmodifiableList(options);
+    }
+
+    private Level build(RiskLevel riskLevel) {
+        ScoringEvent event = new ScoringEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        Level level = new Level();
+        List<Match> all = store.getAll();
+        Thread caller = Thread.currentThread();
+        int kept = 0;
+        int evaluated = 0;
+        for (Match m : all) {
+            // a cancelled build leaves no level behind, the next request starts over
+            BetLogicService.checkCancelled(caller);
+            evaluated += m.getOddsColumns().size();
+            kept += add(level, m, riskLevel);
+        }
+        commit(event, start, riskLevel, all.size(), evaluated, kept);
+        return level;
+    }
+
+    private static void commit(ScoringEvent event, long start, RiskLevel riskLevel, int fixtures, int evaluated, int kept) {
+        BetLogicService.SCORING_LATENCY.recordSince(start);
+        BetLogicService.SCORED_FIXTURES.add(fixtures);
+        event.risk = riskLevel.name();
+        event.fixtures = fixtures;
+        event.evaluated = evaluated;
+        event.kept = kept;
+        event.commit();
+    }
+
+    // returns how many candidates of the match made it into the index
+    // idempotent: a level built from store.getAll() can already hold a fixture whose "added" delta is
+    // still on its way to accept(), the old entries are dropped so it is never listed twice
+    private int add(Level level, Match match, RiskLevel riskLevel) {
+        remove(level, match);
+        List<SmartOption> buffer = new ArrayList<>();
+        logic.scoreMatch(match, riskLevel, buffer);
+        if (buffer.isEmpty()) return 0;
+
+        List<Ranked> entries = new ArrayList<>(buffer.size());
+        for (SmartOption option : buffer) {
+            entries.add(new Ranked(option, sequence++));
+        }
+        level.byFixture.computeIfAbsent(FixtureId.of(match), k -> new ArrayList<>()).addAll(entries);
+        return entries.size();
+    }
+
+    private void remove(Level level, Match match) {
+        level.byFixture.remove(FixtureId.of(match));
+    }
+}
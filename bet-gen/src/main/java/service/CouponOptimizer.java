@@ -0,0 +1,100 @@
+package service;
+
+import java.util.Arrays;
+
+// group knapsack over discretized log-odds: at most one pick per match, total odd inside
+// [minOdd, maxOdd], highest sum of scores wins
+final class CouponOptimizer {
+    private static final double LOG_STEP = 0.01; // ~1% of total odd per bucket
+    // pick nodes are only created on improvements, but the worst case is items x buckets -
+    // past this (2 x 8 MB of ints) the caller uses the greedy scan instead, so concurrent api calls stay bounded
+    private static final int MAX_NODES = 2_000_000;
+
+    private CouponOptimizer() {}
+
+    // group[i] = match index of candidate i, logOdd[i] = log of its price, score[i] = its safety score
+    // candidates come best first: when items x buckets exceeds maxCells only the leading ones are used,
+    // so the same input always gives the same coupon no matter how busy the machine is
+    // returns chosen candidate indices in ascending order, or null when no combination reaches the window
+    // (or the pick pool would outgrow MAX_NODES)
+    static int[] optimize(int[] group, double[] logOdd, double[] score, int groupCount,
+                          double minLog, double maxLog, long maxCells) {
+        // a target below 1.0 (or infinite) has no bucket range, the caller falls back to the greedy scan
+        if (!(maxLog > 0) || !Double.isFinite(maxLog)) return null;
+
+        int buckets = (int) Math.round(maxLog / LOG_STEP) + 1;
+        int n = (int) Math.min(group.length, maxCells / buckets);
+
+        // counting sort of candidates by match, so each match is one layer of the dp
+        int[] groupStart = new int[groupCount + 1];
+        for (int i = 0; i < n; i++) groupStart[group[i] + 1]++;
+        for (int g = 0; g < groupCount; g++) groupStart[g + 1] += groupStart[g];
+        int[] byGroup = new int[n];
+        int[] fill = Arrays.copyOf(groupStart, groupCount);
+        for (int i = 0; i < n; i++) byGroup[fill[group[i]]++] = i;
+
+        // best state per bucket: score, exact log sum (no rounding drift) and the last pick node
+        double[] bestScore = new double[buckets];
+        double[] bestLog = new double[buckets];
+        int[] bestNode = new int[buckets];
+        Arrays.fill(bestScore, Double.NEGATIVE_INFINITY);
+        bestScore[0] = 0.0;
+        bestNode[0] = -1;
+
+        // picks are kept as a linked list in two int pools: item and previous node
+        int[] nodeItem = new int[Math.min(MAX_NODES, Math.max(16, n))];
+        int[] nodePrev = new int[nodeItem.length];
+        int nodeCount = 0;
+
+        double[] prevScore = new double[buckets];
+        double[] prevLog = new double[buckets];
+        int[] prevNode = new int[buckets];
+
+        for (int g = 0; g < groupCount; g++) {
+            System.arraycopy(bestScore, 0, prevScore, 0, buckets);
+            System.arraycopy(bestLog, 0, prevLog, 0, buckets);
+            System.arraycopy(bestNode, 0, prevNode, 0, buckets);
+
+            for (int k = groupStart[g]; k < groupStart[g + 1]; k++) {
+                int item = byGroup[k];
+                for (int b = 0; b < buckets; b++) {
+                    if (prevScore[b] == Double.NEGATIVE_INFINITY) continue;
+
+                    double newLog = prevLog[b] + logOdd[item];
+                    if (newLog > maxLog) continue;
+                    int nb = (int) Math.round(newLog / LOG_STEP);
+                    double newScore = prevScore[b] + score[item];
+                    if (newScore <= bestScore[nb]) continue;
+
+                    if (nodeCount == nodeItem.length) {
+                        if (nodeCount == MAX_NODES) return null;
+                        int grown = (int) Math.min(MAX_NODES, nodeCount * 2L);
+                        nodeItem = Arrays.copyOf(nodeItem, grown);
+                        nodePrev = Arrays.copyOf(nodePrev, grown);
+                    }
+                    nodeItem[nodeCount] = item;
+                    nodePrev[nodeCount] = prevNode[b];
+                    bestScore[nb] = newScore;
+                    bestLog[nb] = newLog;
+                    bestNode[nb] = nodeCount++;
+                }
+            }
+        }
+
+        int winner = -1;
+        for (int b = 0; b < buckets; b++) {
+            if (bestScore[b] == Double.NEGATIVE_INFINITY || bestNode[b] < 0) continue;
+            if (bestLog[b] < minLog || bestLog[b] > maxLog) continue;
+            if (winner == -1 || bestScore[b] > bestScore[winner]) winner = b;
+        }
+        if (winner == -1) return null;
+
+        int size = 0;
+        for (int node = bestNode[winner]; node >= 0; node = nodePrev[node]) size++;
+        int[] picks = new int[size];
+        int i = 0;
+        for (int node = bestNode[winner]; node >= 0; node = nodePrev[node]) picks[i++] = nodeItem[node];
+        Arrays.sort(picks);
+        return picks;
+    }
+}
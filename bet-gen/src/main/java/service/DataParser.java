@@ -1,11 +1,19 @@
 package service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import diag.Counter;
+import diag.Metrics;
+import diag.ParseEvent;
 import model.BetOption;
 import model.Match;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -13,94 +21,208 @@ import java.util.List;
 
 public class DataParser {
 
-    private final ObjectMapper objectMapper;
+    private static final Counter PARSE_ERRORS = Metrics.counter("odds_parse_errors_total");
 
-    public DataParser() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-    }
+    // streaming parser, no JsonNode tree is built for the (big) bookmaker blocks
+    private final JsonFactory jsonFactory = new JsonFactory();
 
     public List<Match> parseMatches(String jsonRaw) {
-        List<Match> matchList = new ArrayList<>();
-        try {
-            // checking error in API
-            if (jsonRaw.contains("\"message\"")) {
-                System.err.println("Warning: The cache file contains an API error. Please delete the .json files and try again..");
-                return matchList;
+        try (JsonParser parser = jsonFactory.createParser(jsonRaw)) {
+            return readMatches(parser, "string");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Parsing error: " + e.getMessage(), e);
+        }
+    }
+
+    // straight from the http response, the body never becomes a String
+    public List<Match> parseMatches(InputStream jsonStream) {
+        try (JsonParser parser = jsonFactory.createParser(jsonStream)) {
+            return readMatches(parser, "stream");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Parsing error: " + e.getMessage(), e);
+        }
+    }
+
+    public List<Match> parseMatches(ByteBuffer jsonBuffer) {
+        if (jsonBuffer.hasArray()) {
+            try (JsonParser parser = jsonFactory.createParser(jsonBuffer.array(),
+                    jsonBuffer.arrayOffset() + jsonBuffer.position(), jsonBuffer.remaining())) {
+                return readMatches(parser, "buffer");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Parsing error: " + e.getMessage(), e);
             }
+        }
+        return parseMatches(new ByteBufferBackedInputStream(jsonBuffer));
+    }
+
+    private List<Match> readMatches(JsonParser parser, String source) throws IOException {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        event.source = source;
+        try {
+            List<Match> matchList = readMatches(parser);
+            event.fixtures = matchList.size();
+            return matchList;
+        } catch (IOException e) {
+            event.failed = true;
+            PARSE_ERRORS.inc();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
 
-            JsonNode rootArray = objectMapper.readTree(jsonRaw);
-            if (!rootArray.isArray()) return matchList;
+    private List<Match> readMatches(JsonParser parser) throws IOException {
+        List<Match> matchList = new ArrayList<>();
+        JsonToken first = parser.nextToken();
 
-            for (JsonNode matchNode : rootArray) {
-                String homeTeam = matchNode.path("home_team").asText("");
-                String awayTeam = matchNode.path("away_team").asText("");
-                String sportTitle = matchNode.path("sport_title").asText("Unknown");
-                String dateStr = matchNode.path("commence_time").asText("");
+        // checking error in API - errors come as an object ({"message": ...}) instead of an array
+        // anything but a complete array fails the parse, so the caller never caches it as an empty league
+        if (first == JsonToken.START_OBJECT) {
+            throw new IOException("The API returned an error instead of matches: " + readErrorMessage(parser));
+        }
+        if (first != JsonToken.START_ARRAY) throw new IOException("Expected a list of matches, got " + first);
 
-                if (homeTeam.isEmpty() || awayTeam.isEmpty() || dateStr.isEmpty()) continue;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            Match match = readMatch(parser);
+            if (match != null) matchList.add(match);
+        }
+        return matchList;
+    }
 
-                Match match = new Match();
-                match.setHomeTeam(homeTeam);
-                match.setAwayTeam(awayTeam);
-                match.setSportTitle(sportTitle);
+    private String readErrorMessage(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("message")) return parser.getValueAsString("");
+            parser.skipChildren();
+        }
+        return "unknown error";
+    }
 
-                try {
-                    match.setTime(ZonedDateTime.parse(dateStr).toLocalDateTime());
-                } catch (Exception e) {
-                    match.setTime(LocalDateTime.now());
+    // parser is on the START_OBJECT of one match
+    private Match readMatch(JsonParser parser) throws IOException {
+        String homeTeam = "";
+        String awayTeam = "";
+        String sportTitle = "Unknown";
+        String dateStr = "";
+        List<BetOption> bets = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "home_team" -> homeTeam = parser.getValueAsString("");
+                case "away_team" -> awayTeam = parser.getValueAsString("");
+                case "sport_title" -> sportTitle = parser.getValueAsString("Unknown");
+                case "commence_time" -> dateStr = parser.getValueAsString("");
+                case "bookmakers" -> {
+                    if (value == JsonToken.START_ARRAY) bets = extractBestOdds(parser);
+                    else parser.skipChildren();
                 }
+                default -> parser.skipChildren();
+            }
+        }
 
-                List<BetOption> bets = extractBestOdds(matchNode);
-                match.setOdds(bets);
+        if (homeTeam.isEmpty() || awayTeam.isEmpty() || dateStr.isEmpty()) return null;
 
-                matchList.add(match);
-            }
+        Match match = new Match();
+        match.setHomeTeam(homeTeam);
+        match.setAwayTeam(awayTeam);
+        match.setSportTitle(sportTitle);
+
+        try {
+            match.setTime(ZonedDateTime.parse(dateStr).toLocalDateTime());
         } catch (Exception e) {
-            System.err.println("Parsing error: " + e.getMessage());
+            match.setTime(LocalDateTime.now());
         }
-        return matchList;
+
+        match.setOdds(bets);
+        return match;
     }
 
-    private List<BetOption> extractBestOdds(JsonNode matchNode) {
+    // parser is on the START_ARRAY of "bookmakers"
+    private List<BetOption> extractBestOdds(JsonParser parser) throws IOException {
         List<BetOption> options = new ArrayList<>();
-        JsonNode bookmakers = matchNode.get("bookmakers");
-
-        if (bookmakers == null || !bookmakers.isArray()) return options;
 
         // flags
-        boolean foundH2H = false;
-        boolean foundTotals = false;
+        boolean[] found = new boolean[2]; // [0] = h2h, [1] = totals
 
         // we search through betclic and pinnacle
-        for (JsonNode bookie : bookmakers) {
-            JsonNode markets = bookie.get("markets");
-            if (markets == null || !markets.isArray()) continue;
-
-            for (JsonNode market : markets) {
-                String marketKey = market.get("key").asText();
-
-                // if we found h2h in fisrt web
-                if (marketKey.equals("h2h") && foundH2H) continue;
-                // if we found total goals
-                if (marketKey.equals("totals") && foundTotals) continue;
-
-                JsonNode outcomes = market.get("outcomes");
-                if (outcomes != null && outcomes.isArray()) {
-                    for (JsonNode outcome : outcomes) {
-                        String name = outcome.get("name").asText();
-                        double price = outcome.get("price").asDouble();
-                        Double point = outcome.has("point") ? outcome.get("point").asDouble() : null;
-
-                        options.add(new BetOption(name, price, point));
-                    }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            // both markets already taken from the first bookie, the rest is skipped unread
+            if (found[0] && found[1]) {
+                parser.skipChildren();
+                continue;
+            }
 
-                    // found
-                    if (marketKey.equals("h2h")) foundH2H = true;
-                    if (marketKey.equals("totals")) foundTotals = true;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("markets") && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readMarket(parser, options, found);
+                    }
+                } else {
+                    parser.skipChildren();
                 }
             }
         }
         return options;
     }
-}
\ No newline at end of file
+
+    // parser is on the START_OBJECT of one market
+    private void readMarket(JsonParser parser, List<BetOption> options, boolean[] found) throws IOException {
+        String marketKey = null;
+        List<BetOption> outcomes = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("key")) {
+                marketKey = parser.getValueAsString("");
+            } else if (field.equals("outcomes") && value == JsonToken.START_ARRAY && !isAlreadyFound(marketKey, found)) {
+                outcomes = readOutcomes(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        // if we found h2h or total goals in first web
+        if (outcomes == null || marketKey == null || isAlreadyFound(marketKey, found)) return;
+
+        options.addAll(outcomes);
+
+        // found
+        if (marketKey.equals("h2h")) found[0] = true;
+        if (marketKey.equals("totals")) found[1] = true;
+    }
+
+    private boolean isAlreadyFound(String marketKey, boolean[] found) {
+        if (marketKey == null) return false;
+        return (marketKey.equals("h2h") && found[0]) || (marketKey.equals("totals") && found[1]);
+    }
+
+    // parser is on the START_ARRAY of "outcomes"
+    private List<BetOption> readOutcomes(JsonParser parser) throws IOException {
+        List<BetOption> outcomes = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = "";
+            double price = 0.0;
+            Double point = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name" -> name = parser.getValueAsString("");
+                    case "price" -> price = parser.getValueAsDouble();
+                    case "point" -> point = parser.getValueAsDouble();
+                    default -> parser.skipChildren();
+                }
+            }
+            outcomes.add(new BetOption(name, price, point));
+        }
+        return outcomes;
+    }
+}
@@ -0,0 +1,180 @@
+package service;
+
+import api.CacheManager;
+import api.OddsApiClient;
+import diag.CacheEvent;
+import diag.Counter;
+import diag.Log;
+import diag.Metrics;
+import model.Match;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+public class FetchPipeline {
+    public static final List<String> LEAGUE_KEYS = List.of(
+            "soccer_epl",
+            "soccer_spain_la_liga",
+            "soccer_italy_serie_a",
+            "soccer_germany_bundesliga",
+            "soccer_france_ligue_one"
+    );
+
+    private static final int DEFAULT_REFRESH_CONCURRENCY = 2;
+
+    // memory / disk / stale all count as hits, only a blocking download is a miss
+    private static final Counter CACHE_HITS = Metrics.counter("odds_cache_hits_total");
+    private static final Counter CACHE_MISSES = Metrics.counter("odds_cache_misses_total");
+    static {
+        Metrics.gauge("odds_cache_hit_ratio", () -> Metrics.ratio(CACHE_HITS, CACHE_MISSES));
+    }
+
+    private final OddsApiClient client;
+    private final DataParser parser;
+    private final MatchStore store;
+    private final StatsService statsService;
+
+    // one virtual thread per league, blocking http calls are cheap there
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // every api download goes through here: token quota, kickoff priority, duplicate refreshes
+    private final RefreshScheduler scheduler;
+    private final List<Consumer<String>> refreshListeners = new CopyOnWriteArrayList<>();
+
+    public FetchPipeline(OddsApiClient client, DataParser parser, MatchStore store, StatsService statsService) {
+        this.client = client;
+        this.parser = parser;
+        this.store = store;
+        this.statsService = statsService;
+        this.scheduler = new RefreshScheduler(client.getBudget(), executor, readRefreshConcurrency());
+
+        Metrics.gauge("odds_refresh_queued", () -> scheduler.metrics().queued());
+        Metrics.gauge("odds_refresh_in_flight", () -> scheduler.metrics().inFlight());
+        Metrics.gauge("odds_refresh_coalesced", () -> scheduler.metrics().coalesced());
+        Metrics.gauge("odds_refresh_skipped_idle", () -> scheduler.metrics().skippedIdle());
+        Metrics.gauge("odds_refresh_deferred_low_quota", () -> scheduler.metrics().deferredLowQuota());
+    }
+
+    public RefreshScheduler.Metrics schedulerMetrics() {
+        return scheduler.metrics();
+    }
+
+    private static int readRefreshConcurrency() {
+        String value = ConfigLoader.getProperty("cache.refresh.concurrency");
+        try {
+            return (value != null) ? Math.max(1, Integer.parseInt(value.trim())) : DEFAULT_REFRESH_CONCURRENCY;
+        } catch (NumberFormatException e) {
+            return DEFAULT_REFRESH_CONCURRENCY;
+        }
+    }
+
+    // called with the league key (on a background thread) after fresh odds replaced a stale snapshot
+    public void addRefreshListener(Consumer<String> listener) {
+        refreshListeners.add(listener);
+    }
+
+    // all leagues are requested at once, each one is parsed and stored as soon as its body arrives
+    public CompletableFuture<Void> fetchAll() {
+        return fetchAll(true);
+    }
+
+    // allowStale = false is for one-shot callers (headless batch) that read the store right after the join:
+    // an expired snapshot is not served, the league is downloaded and waited for like a cache miss
+    public CompletableFuture<Void> fetchAll(boolean allowStale) {
+        CompletableFuture<?>[] tasks = LEAGUE_KEYS.stream()
+                .map(key -> CompletableFuture.runAsync(() -> fetchLeague(key, allowStale), executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(tasks);
+    }
+
+    private void fetchLeague(String leagueKey, boolean allowStale) {
+        try {
+            CacheEvent lookup = new CacheEvent();
+            lookup.begin();
+            lookup.league = leagueKey;
+
+            // memory tier first, no disk and no json parsing inside the cache window
+            List<Match> cached = CacheManager.getCachedMatches(leagueKey);
+            if (cached != null) {
+                commit(lookup, "memory", cached.size());
+                Log.info("CACHE", () -> leagueKey + " served from memory.");
+                store.putLeague(leagueKey, cached);
+                return;
+            }
+
+            // will appear when our tokens are not being used
+            if (CacheManager.isCacheValid(leagueKey)) {
+                Log.info("CACHE", () -> "Loading " + leagueKey + " from local disk (0 tokens used).");
+                List<Match> matches = loadSnapshot(leagueKey);
+                commit(lookup, "disk", matches.size());
+                store.putLeague(leagueKey, matches);
+                return;
+            }
+
+            // expired - the last good snapshot is shown right away and fresh odds follow in the background
+            List<Match> stale = allowStale ? CacheManager.getStaleMatches(leagueKey) : null;
+            if (allowStale && stale == null && CacheManager.hasSnapshot(leagueKey)) {
+                stale = loadSnapshot(leagueKey);
+            }
+            if (stale != null) {
+                commit(lookup, "stale", stale.size());
+                Log.info("CACHE", () -> leagueKey + " is stale, serving last snapshot and refreshing...");
+                store.putLeague(leagueKey, stale);
+                refreshInBackground(leagueKey, stale);
+                return;
+            }
+
+            commit(lookup, "miss", 0);
+            store.putLeague(leagueKey, scheduler.schedule(leagueKey, null, () -> download(leagueKey)).join());
+        } catch (CompletionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static void commit(CacheEvent event, String result, int fixtures) {
+        if (result.equals("miss")) CACHE_MISSES.inc(); else CACHE_HITS.inc();
+        event.result = result;
+        event.fixtures = fixtures;
+        event.commit();
+    }
+
+    private List<Match> loadSnapshot(String leagueKey) throws Exception {
+        List<Match> matches = CacheManager.loadMatches(leagueKey, parser);
+        // memory tier keeps these same Match objects, so names are resolved once per disk/api load
+        statsService.resolveTeams(matches);
+        return matches;
+    }
+
+    private List<Match> download(String leagueKey) throws Exception {
+        List<Match> matches;
+        try (InputStream body = client.getRawStream(leagueKey)) {
+            // throws on a broken or truncated body, nothing below runs then (no empty league gets cached)
+            matches = parser.parseMatches(body);
+        }
+        // we save it to cache not to use our tokens many times
+        CacheManager.saveMatches(leagueKey, matches);
+        statsService.resolveTeams(matches);
+        return matches;
+    }
+
+    private void refreshInBackground(String leagueKey, List<Match> stale) {
+        scheduler.schedule(leagueKey, stale, () -> download(leagueKey)).whenComplete((fresh, ex) -> {
+            if (ex != null) {
+                Log.warn("API", () -> "Background refresh of " + leagueKey + " failed: " + ex.getMessage());
+                return;
+            }
+            // null means the scheduler kept the snapshot (no fixtures soon or low quota)
+            if (fresh == null) return;
+            store.putLeague(leagueKey, fresh);
+            for (Consumer<String> listener : refreshListeners) listener.accept(leagueKey);
+        });
+    }
+}
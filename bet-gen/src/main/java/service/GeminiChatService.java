@@ -1,17 +1,21 @@
 package service;
 
+import api.HttpTransport;
+import diag.LatencyHistogram;
+import diag.Log;
+import diag.Metrics;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 
 public class GeminiChatService {
+    private static final LatencyHistogram LATENCY = Metrics.histogram("gemini_request_seconds");
+
     private final String apiKey = ConfigLoader.getProperty("gemini.api.key");
     // 2-5-flash model
     private final String apiUrl = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent?key=" + apiKey;
-    private final HttpClient httpClient = HttpClient.newHttpClient();
 
     public String getAiResponse(String userPrompt, String context) {
         try {
@@ -37,9 +41,16 @@ public class GeminiChatService {
                     .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = HttpTransport.send(request);
+            } finally {
+                LATENCY.recordSince(start);
+            }
 
-            System.out.println(">>> RAW API RESPONSE: " + response.body());
+            // the whole body can be several kB, only a prefix and only when debugging
+            Log.debug("GEMINI", () -> "Raw response (" + response.body().length() + " chars): " + abbreviate(response.body(), 500));
 
             JSONObject jsonResponse = new JSONObject(response.body());
 
@@ -62,4 +73,8 @@ public class GeminiChatService {
             return "Błąd techniczny: " + e.getMessage();
         }
     }
-}
\ No newline at end of file
+
+    private static String abbreviate(String text, int max) {
+        return (text.length() <= max) ? text : text.substring(0, max) + "...";
+    }
+}
@@ -1,22 +1,44 @@
 package service;
 
+import api.HttpTransport;
+import diag.Counter;
+import diag.LatencyHistogram;
+import diag.Log;
+import diag.Metrics;
+import model.KickoffWindow;
+import model.Match;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class HistoricalDataService {
     public record MatchResult(String res, String score, String opponent, long timestamp) {}
 
+    // decoded form of one team, the list is immutable so a cache hit can hand it out as is
+    private record FormEntry(List<MatchResult> results, long timestamp) {
+        boolean isFresh() {
+            return System.currentTimeMillis() - timestamp < FORM_TTL_MS;
+        }
+    }
+
+    private static final long FORM_TTL_MS = 12 * 60 * 60 * 1000;
+    // a team that could not be resolved (or had no results) is not asked for again before this
+    private static final long FAILED_LOOKUP_TTL_MS = 15 * 60 * 1000;
+    // above this many cached teams entries are decoded on first use instead of at startup
+    private static final int EAGER_DECODE_LIMIT = 500;
+
     private final String apiKey = ConfigLoader.getProperty("football.api.key");
     private final String baseUrl = "https://v3.football.api-sports.io/";
-    private final HttpClient httpClient = HttpClient.newHttpClient();
 
     // dynamic paths
     private static String getWorkDir() {
@@ -26,44 +48,159 @@ public class HistoricalDataService {
         return path;
     }
 
-    private static Map<String, Integer> teamIdCache = new HashMap<>();
-    private static JSONObject formCache = new JSONObject();
+    private static final Map<String, Integer> teamIdCache = new ConcurrentHashMap<>();
+    private static final Map<String, FormEntry> formCache = new ConcurrentHashMap<>();
+    // entries read from a big cache file that nobody asked for yet
+    private static final Map<String, JSONObject> undecodedForms = new ConcurrentHashMap<>();
+
+    // lookups run on a small pool, so a whole slate never hits the api with more than 3 teams at once
+    private static final ExecutorService FETCH_EXECUTOR = Executors.newFixedThreadPool(3, r -> {
+        Thread t = new Thread(r, "team-form-fetch");
+        t.setDaemon(true);
+        return t;
+    });
+    // team key -> time of the last failed lookup, kept in memory only
+    private static final Map<String, Long> failedLookups = new ConcurrentHashMap<>();
+    // team key -> lookup in progress, callers asking for the same team share it
+    private static final Map<String, CompletableFuture<List<MatchResult>>> inFlight = new ConcurrentHashMap<>();
+
+    private static final LatencyHistogram API_LATENCY = Metrics.histogram("football_api_request_seconds");
+    private static final Counter FORM_HITS = Metrics.counter("form_cache_hits_total");
+    private static final Counter FORM_MISSES = Metrics.counter("form_cache_misses_total");
+    static {
+        Metrics.gauge("form_cache_hit_ratio", () -> Metrics.ratio(FORM_HITS, FORM_MISSES));
+    }
 
     private static final String ID_CACHE_FILE = getWorkDir() + "team_ids_cache.json";
-    private static final String FORM_CACHE_FILE = getWorkDir() + "team_form_cache.json";;
+    private static final String FORM_CACHE_FILE = getWorkDir() + "team_form_cache.json";
+
+    // a miss appends one line instead of rewriting the whole file
+    private static final CacheJournal idJournal = new CacheJournal(Paths.get(ID_CACHE_FILE),
+            Paths.get(getWorkDir() + "team_ids_cache.log"), () -> new JSONObject(teamIdCache));
+    private static final CacheJournal formJournal = new CacheJournal(Paths.get(FORM_CACHE_FILE),
+            Paths.get(getWorkDir() + "team_form_cache.log"), HistoricalDataService::formCacheToJson);
+    private static final AtomicBoolean cachesLoaded = new AtomicBoolean();
 
     public HistoricalDataService() {
-        loadCaches();
+        if (cachesLoaded.compareAndSet(false, true)) loadCaches();
     }
 
-    private void loadCaches() {
-        try {
-            if (Files.exists(Paths.get(ID_CACHE_FILE))) {
-                JSONObject json = new JSONObject(Files.readString(Paths.get(ID_CACHE_FILE)));
-                for (String key : json.keySet()) teamIdCache.put(key, json.getInt(key));
-            }
-            if (Files.exists(Paths.get(FORM_CACHE_FILE))) {
-                formCache = new JSONObject(Files.readString(Paths.get(FORM_CACHE_FILE)));
-            }
-        } catch (Exception e) { System.err.println(">>> Cache load error"); }
+    private static void loadCaches() {
+        JSONObject ids = idJournal.load();
+        for (String key : ids.keySet()) teamIdCache.put(key, ids.getInt(key));
+
+        JSONObject forms = formJournal.load();
+        boolean decodeNow = forms.length() <= EAGER_DECODE_LIMIT;
+        for (String key : forms.keySet()) {
+            JSONObject entry = forms.optJSONObject(key);
+            if (entry == null) continue;
+            if (decodeNow) formCache.put(key, decodeForm(entry));
+            else undecodedForms.put(key, entry);
+        }
+    }
+
+    private static FormEntry decodeForm(JSONObject entry) {
+        List<MatchResult> results = new ArrayList<>();
+        JSONArray cachedData = entry.getJSONArray("data");
+        for (int i = 0; i < cachedData.length(); i++) {
+            JSONObject m = cachedData.getJSONObject(i);
+            results.add(new MatchResult(m.getString("res"), m.getString("score"), m.getString("opp"), m.optLong("ts", 0)));
+        }
+        return new FormEntry(List.copyOf(results), entry.getLong("timestamp"));
+    }
+
+    private static JSONObject encodeForm(FormEntry form) {
+        JSONArray matchesToCache = new JSONArray();
+        for (MatchResult mr : form.results()) {
+            JSONObject mObj = new JSONObject();
+            mObj.put("res", mr.res()); mObj.put("score", mr.score()); mObj.put("opp", mr.opponent()); mObj.put("ts", mr.timestamp());
+            matchesToCache.put(mObj);
+        }
+        JSONObject entry = new JSONObject();
+        entry.put("timestamp", form.timestamp());
+        entry.put("data", matchesToCache);
+        return entry;
+    }
+
+    // full state for journal compaction, not yet decoded entries are written back untouched
+    private static JSONObject formCacheToJson() {
+        JSONObject json = new JSONObject();
+        undecodedForms.forEach(json::put);
+        formCache.forEach((key, form) -> json.put(key, encodeForm(form)));
+        return json;
     }
 
     public List<MatchResult> getTeamForm(String teamName) {
+        return getTeamFormAsync(teamName).join();
+    }
+
+    public CompletableFuture<List<MatchResult>> getTeamFormAsync(String teamName) {
         String cacheKey = teamName.toLowerCase().trim();
-        List<MatchResult> results = new ArrayList<>();
+        List<MatchResult> cached = readCachedForm(cacheKey);
+        if (cached != null) {
+            FORM_HITS.inc();
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (recentlyFailed(cacheKey)) return CompletableFuture.completedFuture(List.of());
+        FORM_MISSES.inc();
 
-        //  check cache
-        if (formCache.has(cacheKey)) {
-            JSONObject entry = formCache.getJSONObject(cacheKey);
-            if (System.currentTimeMillis() - entry.getLong("timestamp") < 12 * 60 * 60 * 1000) {
-                JSONArray cachedData = entry.getJSONArray("data");
-                for (int i = 0; i < cachedData.length(); i++) {
-                    JSONObject m = cachedData.getJSONObject(i);
-                    results.add(new MatchResult(m.getString("res"), m.getString("score"), m.getString("opp"), 0));
-                }
-                return results;
+        CompletableFuture<List<MatchResult>> promise = new CompletableFuture<>();
+        CompletableFuture<List<MatchResult>> running = inFlight.putIfAbsent(cacheKey, promise);
+        if (running != null) return running;
+
+        FETCH_EXECUTOR.execute(() -> {
+            try {
+                promise.complete(loadTeamForm(teamName));
+            } catch (Throwable t) {
+                promise.completeExceptionally(t);
+            } finally {
+                inFlight.remove(cacheKey, promise);
             }
+        });
+        return promise;
+    }
+
+    // warms the form cache for every team playing in the next 3 days, detail pages are then cache hits
+    public CompletableFuture<Void> prefetchSlate(List<Match> matches) {
+        KickoffWindow window = KickoffWindow.nextDays(3);
+        Set<String> teams = new LinkedHashSet<>();
+        for (Match m : matches) {
+            if (!window.contains(m)) continue;
+            teams.add(m.getHomeTeam());
+            teams.add(m.getAwayTeam());
+        }
+
+        Log.info("FORM", () -> "Prefetching form for " + teams.size() + " teams...");
+        return CompletableFuture.allOf(teams.stream()
+                .map(this::getTeamFormAsync)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private static boolean recentlyFailed(String cacheKey) {
+        Long failedAt = failedLookups.get(cacheKey);
+        if (failedAt == null) return false;
+        if (System.currentTimeMillis() - failedAt < FAILED_LOOKUP_TTL_MS) return true;
+        failedLookups.remove(cacheKey, failedAt);
+        return false;
+    }
+
+    // null when the team is not cached or the entry is older than 12h
+    private List<MatchResult> readCachedForm(String cacheKey) {
+        FormEntry form = formCache.get(cacheKey);
+        if (form == null) {
+            JSONObject raw = undecodedForms.remove(cacheKey);
+            if (raw == null) return null;
+            form = decodeForm(raw);
+            formCache.putIfAbsent(cacheKey, form);
         }
+        return form.isFresh() ? form.results() : null;
+    }
+
+    private List<MatchResult> loadTeamForm(String teamName) {
+        String cacheKey = teamName.toLowerCase().trim();
+        List<MatchResult> results = readCachedForm(cacheKey);
+        if (results != null) return results;
+        results = new ArrayList<>();
 
         try {
             int teamId = getTeamId(teamName);
@@ -72,28 +209,34 @@ public class HistoricalDataService {
             // download data first from 2025 then 2024
             results = fetchFixturesFromApi(teamId, 2025);
             if (results.isEmpty()) {
-                System.out.println(">>> Season 2025 empty for " + teamName + ", trying 2024...");
+                Log.info("FORM", () -> "Season 2025 empty for " + teamName + ", trying 2024...");
                 results = fetchFixturesFromApi(teamId, 2024);
             }
 
             // save to the file
             if (!results.isEmpty()) {
-                JSONArray matchesToCache = new JSONArray();
-                for (MatchResult mr : results) {
-                    JSONObject mObj = new JSONObject();
-                    mObj.put("res", mr.res()); mObj.put("score", mr.score()); mObj.put("opp", mr.opponent());
-                    matchesToCache.put(mObj);
-                }
-                JSONObject newEntry = new JSONObject();
-                newEntry.put("timestamp", System.currentTimeMillis());
-                newEntry.put("data", matchesToCache);
-                formCache.put(cacheKey, newEntry);
-                Files.writeString(Paths.get(FORM_CACHE_FILE), formCache.toString(2));
+                FormEntry form = new FormEntry(List.copyOf(results), System.currentTimeMillis());
+                formCache.put(cacheKey, form);
+                undecodedForms.remove(cacheKey);
+                formJournal.append(cacheKey, encodeForm(form));
+                results = form.results();
             }
-        } catch (Exception e) { e.printStackTrace(); }
+        } catch (Exception e) { Log.error("FORM", "Form lookup failed for " + teamName, e); }
+
+        // unknown team, api error or no finished games - prefetch and detail pages skip it for a while
+        if (results.isEmpty()) failedLookups.put(cacheKey, System.currentTimeMillis());
         return results;
     }
 
+    private static HttpResponse<String> timedSend(HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return HttpTransport.send(request);
+        } finally {
+            API_LATENCY.recordSince(start);
+        }
+    }
+
     private List<MatchResult> fetchFixturesFromApi(int teamId, int season) throws Exception {
         List<MatchResult> results = new ArrayList<>();
         String url = baseUrl + "fixtures?team=" + teamId + "&season=" + season;
@@ -102,7 +245,7 @@ public class HistoricalDataService {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url)).header("x-apisports-key", apiKey).GET().build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = timedSend(request);
         JSONObject json = new JSONObject(response.body());
 
         if (json.has("response")) {
@@ -127,14 +270,15 @@ public class HistoricalDataService {
                     .sorted(Comparator.comparingLong(MatchResult::timestamp).reversed())
                     .limit(5).collect(Collectors.toList());
         } else {
-            System.err.println(">>> API Error Response: " + response.body());
+            Log.warn("FORM", () -> "API Error Response: " + response.body());
         }
         return results;
     }
 
     private int getTeamId(String name) throws Exception {
         String cleanName = name.toLowerCase().trim();
-        if (teamIdCache.containsKey(cleanName)) return teamIdCache.get(cleanName);
+        Integer cachedId = teamIdCache.get(cleanName);
+        if (cachedId != null) return cachedId;
 
         // easier looking for a name
         String query = cleanName.replace(" munich", "").replace("bc", "").replace("sv", "").replace("fc", "").replace("cf", "").trim().replace(" ", "%20");
@@ -143,13 +287,13 @@ public class HistoricalDataService {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url)).header("x-apisports-key", apiKey).GET().build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = timedSend(request);
         JSONObject json = new JSONObject(response.body());
 
         if (json.has("response") && json.getJSONArray("response").length() > 0) {
             int id = json.getJSONArray("response").getJSONObject(0).getJSONObject("team").getInt("id");
             teamIdCache.put(cleanName, id);
-            Files.writeString(Paths.get(ID_CACHE_FILE), new JSONObject(teamIdCache).toString());
+            idJournal.append(cleanName, id);
             return id;
         }
         return -1;
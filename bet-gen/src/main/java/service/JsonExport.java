@@ -0,0 +1,56 @@
+package service;
+
+import model.Coupon;
+import model.CouponLeg;
+import model.Match;
+import model.MatchAnalysis;
+import model.MatchPrediction;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+// json shapes shared by the headless runner and other non-gui outputs
+public final class JsonExport {
+
+    private JsonExport() {}
+
+    public static JSONObject match(Match m) {
+        return new JSONObject()
+                .put("league", m.getLeagueKey())
+                .put("home", m.getHomeTeam())
+                .put("away", m.getAwayTeam())
+                .put("kickoff", (m.getTime() != null) ? m.getTime() + "Z" : JSONObject.NULL);
+    }
+
+    public static JSONObject coupon(Coupon coupon) {
+        JSONArray legs = new JSONArray();
+        for (CouponLeg leg : coupon.legs()) {
+            legs.put(match(leg.match())
+                    .put("market", leg.marketLabel())
+                    .put("price", leg.price())
+                    .put("score", round(leg.score(), 3))
+                    .put("bttsProb", round(leg.prediction().bttsProb(), 3)));
+        }
+        return new JSONObject()
+                .put("totalOdd", round(coupon.totalOdd(), 2))
+                .put("legs", legs);
+    }
+
+    public static JSONObject prediction(MatchPrediction p) {
+        return new JSONObject()
+                .put("bttsProb", round(p.bttsProb(), 3))
+                .put("expectedGoals", round(p.expectedGoals(), 2))
+                .put("homeWinRate", round(p.homeWinRate(), 3))
+                .put("awayWinRate", round(p.awayWinRate(), 3));
+    }
+
+    public static JSONObject analysis(MatchAnalysis a) {
+        return match(a.match())
+                .put("status", a.status())
+                .put("prediction", prediction(a.prediction()));
+    }
+
+    private static double round(double value, int digits) {
+        double scale = Math.pow(10, digits);
+        return Math.round(value * scale) / scale;
+    }
+}
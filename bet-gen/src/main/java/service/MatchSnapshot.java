@@ -0,0 +1,63 @@
+package service;
+
+import model.KickoffWindow;
+import model.MatchAnalysis;
+import model.RiskLevel;
+import service.BetLogicService.SmartOption;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// everything the http api reads, built once per store change and never modified afterwards
+// candidates are already filtered to the slate window and sorted best first
+public final class MatchSnapshot {
+
+    static final MatchSnapshot EMPTY = new MatchSnapshot(0, Instant.EPOCH, null, 0, Map.of(), List.of(), "");
+
+    private final long version;
+    private final Instant createdAt;
+    private final KickoffWindow window;
+    private final int matchCount;
+    private final Map<RiskLevel, List<SmartOption>> candidates;
+    private final List<MatchAnalysis> analysis;
+    private final String analysisText;
+    private final Map<String, MatchAnalysis> byFixture;
+
+    MatchSnapshot(long version, Instant createdAt, KickoffWindow window, int matchCount,
+                  Map<RiskLevel, List<SmartOption>> candidates, List<MatchAnalysis> analysis, String analysisText) {
+        this.version = version;
+        this.createdAt = createdAt;
+        this.window = window;
+        this.matchCount = matchCount;
+        this.candidates = candidates;
+        this.analysis = analysis;
+        this.analysisText = analysisText;
+
+        Map<String, MatchAnalysis> map = new HashMap<>(analysis.size() * 2);
+        for (MatchAnalysis a : analysis) map.putIfAbsent(key(a.match().getHomeTeam(), a.match().getAwayTeam()), a);
+        this.byFixture = map;
+    }
+
+    private static String key(String home, String away) {
+        return (home + "|" + away).toLowerCase(Locale.ROOT);
+    }
+
+    public long version() { return version; }
+    public Instant createdAt() { return createdAt; }
+    public KickoffWindow window() { return window; }
+    public int matchCount() { return matchCount; }
+    public List<MatchAnalysis> analysis() { return analysis; }
+    public String analysisText() { return analysisText; }
+
+    // prediction row of a slate fixture by team names (case-insensitive), null when it is not in the slate
+    public MatchAnalysis find(String home, String away) {
+        return byFixture.get(key(home, away));
+    }
+
+    List<SmartOption> candidates(RiskLevel riskLevel) {
+        return candidates.getOrDefault(riskLevel, List.of());
+    }
+}
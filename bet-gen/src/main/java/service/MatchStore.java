@@ -0,0 +1,132 @@
+package service;
+
+import model.BetOption;
+import model.FixtureId;
+import model.KickoffWindow;
+import model.Match;
+import model.MatchDelta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+public class MatchStore {
+    // league key -> parsed matches, sorted map so getAll() order does not depend on which league came back first
+    private final Map<String, List<Match>> matchesByLeague = new ConcurrentSkipListMap<>();
+    // kickoff epoch second -> fixtures starting then, window queries are a sub-map instead of a full scan
+    // (values are immutable lists, replaced under the store lock)
+    private final NavigableMap<Long, List<Match>> byKickoff = new ConcurrentSkipListMap<>();
+    private final List<Consumer<MatchDelta>> listeners = new CopyOnWriteArrayList<>();
+
+    // called under the store lock, in the order the refreshes were applied
+    public void addListener(Consumer<MatchDelta> listener) {
+        listeners.add(listener);
+    }
+
+    // replaces the matches of one league and tells listeners which fixtures were added, changed or removed
+    // fixtures with the same odds keep their old Match object, so anything keyed on it stays valid
+    public synchronized MatchDelta putLeague(String leagueKey, List<Match> matches) {
+        List<Match> previous = matchesByLeague.getOrDefault(leagueKey, List.of());
+        Map<FixtureId, Match> old = new HashMap<>(previous.size() * 2);
+        for (Match m : previous) old.put(FixtureId.of(m), m);
+
+        List<Match> merged = new ArrayList<>(matches.size());
+        List<Match> added = new ArrayList<>();
+        List<Match> changed = new ArrayList<>();
+        for (Match m : matches) {
+            Match before = old.remove(FixtureId.of(m));
+            if (before == null) {
+                m.setLeagueKey(leagueKey);
+                indexKickoff(m);
+                added.add(m);
+                merged.add(m);
+            } else if (!sameOdds(before.getOdds(), m.getOdds())) {
+                m.setLeagueKey(leagueKey);
+                unindexKickoff(before);
+                indexKickoff(m);
+                changed.add(m);
+                merged.add(m);
+            } else {
+                merged.add(before);
+            }
+        }
+        List<Match> removed = new ArrayList<>(old.values());
+        for (Match m : removed) unindexKickoff(m);
+
+        matchesByLeague.put(leagueKey, List.copyOf(merged));
+        MatchDelta delta = new MatchDelta(leagueKey, added, changed, removed);
+        if (!delta.isEmpty()) {
+            for (Consumer<MatchDelta> listener : listeners) listener.accept(delta);
+        }
+        return delta;
+    }
+
+    // also builds the odds columns, so that happens on the fetch thread and not in the first scoring run
+    private void indexKickoff(Match m) {
+        m.getOddsColumns();
+        byKickoff.merge(m.getKickoff(), List.of(m), (a, b) -> {
+            List<Match> joined = new ArrayList<>(a);
+            joined.addAll(b);
+            return List.copyOf(joined);
+        });
+    }
+
+    private void unindexKickoff(Match m) {
+        byKickoff.computeIfPresent(m.getKickoff(), (k, list) -> {
+            List<Match> left = new ArrayList<>(list);
+            left.removeIf(x -> x == m);
+            return left.isEmpty() ? null : List.copyOf(left);
+        });
+    }
+
+    private static boolean sameOdds(List<BetOption> a, List<BetOption> b) {
+        if (a == null || b == null) return a == b;
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            BetOption x = a.get(i);
+            BetOption y = b.get(i);
+            if (x.getPrice() != y.getPrice()
+                    || !Objects.equals(x.getName(), y.getName())
+                    || !Objects.equals(x.getPoint(), y.getPoint())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // fresh mutable copy, callers are allowed to sort it
+    public List<Match> getAll() {
+        List<Match> all = new ArrayList<>();
+        for (List<Match> league : matchesByLeague.values()) {
+            all.addAll(league);
+        }
+        return all;
+    }
+
+    // fixtures kicking off inside the window, in kickoff order
+    public List<Match> getWindow(KickoffWindow window) {
+        List<Match> result = new ArrayList<>();
+        for (List<Match> slot : byKickoff.subMap(window.from(), true, window.until(), false).values()) {
+            result.addAll(slot);
+        }
+        return result;
+    }
+
+    public int size() {
+        int size = 0;
+        for (List<Match> league : matchesByLeague.values()) {
+            size += league.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
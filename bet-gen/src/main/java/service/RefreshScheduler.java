@@ -0,0 +1,185 @@
+package service;
+
+import api.TokenBudget;
+import diag.Log;
+import model.Match;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// decides which league downloads are worth an odds api token and in what order they run
+// - leagues whose next fixture is more than a few days away keep their snapshot (no token spent)
+// - when the quota gets low only leagues kicking off soon are refreshed, below the floor nothing is
+// - a league already queued or downloading is never requested twice
+public class RefreshScheduler {
+
+    public record Metrics(int tokensUsed, int tokensRemaining, int queued, int inFlight,
+                          long completed, long failed, long coalesced, long skippedIdle, long deferredLowQuota) {}
+
+    private static final long NO_KICKOFF = Long.MAX_VALUE;
+    private static final long URGENT_WINDOW_SECONDS = 24 * 3600;
+
+    private final TokenBudget budget;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    private final int reserveTokens = readInt("odds.quota.reserve", 20);
+    private final int floorTokens = readInt("odds.quota.floor", 3);
+    private final long horizonSeconds = readInt("odds.refresh.horizon.days", 3) * 86400L;
+
+    private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>();
+    private final Map<String, CompletableFuture<List<Match>>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong skippedIdle = new AtomicLong();
+    private final AtomicLong deferredLowQuota = new AtomicLong();
+
+    private record Job(String leagueKey, boolean waiting, int weight, long nextKickoff, long seq,
+                       Callable<List<Match>> download, CompletableFuture<List<Match>> result) implements Comparable<Job> {
+        // configured league weight first, then the closest kickoff
+        @Override
+        public int compareTo(Job o) {
+            if (weight != o.weight) return Integer.compare(o.weight, weight);
+            if (nextKickoff != o.nextKickoff) return Long.compare(nextKickoff, o.nextKickoff);
+            return Long.compare(seq, o.seq);
+        }
+    }
+
+    public RefreshScheduler(TokenBudget budget, ExecutorService executor, int concurrency) {
+        this.budget = budget;
+        this.executor = executor;
+        this.permits = new Semaphore(Math.max(1, concurrency));
+    }
+
+    private static int readInt(String key, int fallback) {
+        String value = ConfigLoader.getProperty(key);
+        try {
+            return (value != null) ? Integer.parseInt(value.trim()) : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    // current == null means there is nothing to show for this league, the caller is blocked on the result
+    // the future completes with the downloaded list, or with null when the refresh was skipped
+    public CompletableFuture<List<Match>> schedule(String leagueKey, List<Match> current, Callable<List<Match>> download) {
+        CompletableFuture<List<Match>> existing = pending.get(leagueKey);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        long now = LocalDateTime.now(ZoneOffset.UTC).toEpochSecond(ZoneOffset.UTC);
+        long nextKickoff = nextKickoff(current, now);
+        boolean waiting = (current == null);
+
+        // only a known future kickoff beyond the horizon is idle - an empty cache or one holding
+        // nothing but past games is refreshed (quota permitting)
+        if (!waiting && nextKickoff != NO_KICKOFF && nextKickoff - now > horizonSeconds) {
+            skippedIdle.incrementAndGet();
+            Log.info("SCHEDULER", () -> leagueKey + " has no fixtures soon, keeping snapshot.");
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!waiting && !quotaAllows(nextKickoff, now)) {
+            deferredLowQuota.incrementAndGet();
+            Log.info("SCHEDULER", () -> "Low token quota, " + leagueKey + " refresh deferred.");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<List<Match>> result = new CompletableFuture<>();
+        CompletableFuture<List<Match>> raced = pending.putIfAbsent(leagueKey, result);
+        if (raced != null) {
+            coalesced.incrementAndGet();
+            return raced;
+        }
+
+        int weight = readInt("odds.refresh.priority." + leagueKey, 0);
+        Job job = new Job(leagueKey, waiting, weight, nextKickoff, sequence.incrementAndGet(), download, result);
+        if (waiting) {
+            // nothing on screen yet, this one does not wait behind background refreshes
+            executor.execute(() -> run(job));
+        } else {
+            queue.add(job);
+            executor.execute(this::runNext);
+        }
+        return result;
+    }
+
+    private boolean quotaAllows(long nextKickoff, long now) {
+        int remaining = budget.getRemaining().orElse(Integer.MAX_VALUE);
+        if (remaining <= floorTokens) return false;
+        if (remaining <= reserveTokens) return nextKickoff - now <= URGENT_WINDOW_SECONDS;
+        return true;
+    }
+
+    private static long nextKickoff(List<Match> matches, long now) {
+        if (matches == null) return NO_KICKOFF;
+        long best = NO_KICKOFF;
+        for (Match m : matches) {
+            long t = m.getKickoff();
+            if (t >= now && t < best) best = t;
+        }
+        return best;
+    }
+
+    // one runNext is submitted per queued job, whichever gets a permit takes the most important job left
+    private void runNext() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            Job job = queue.poll();
+            if (job != null) run(job);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void run(Job job) {
+        inFlight.incrementAndGet();
+        try {
+            int remaining = budget.getRemaining().orElse(Integer.MAX_VALUE);
+            long now = LocalDateTime.now(ZoneOffset.UTC).toEpochSecond(ZoneOffset.UTC);
+            if (job.waiting() && remaining <= floorTokens) {
+                deferredLowQuota.incrementAndGet();
+                job.result().completeExceptionally(new IllegalStateException(
+                        "Odds API quota almost used up (" + remaining + " left)"));
+            } else if (!job.waiting() && !quotaAllows(job.nextKickoff(), now)) {
+                // quota dropped while the job was queued
+                deferredLowQuota.incrementAndGet();
+                job.result().complete(null);
+            } else {
+                job.result().complete(job.download().call());
+                completed.incrementAndGet();
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            job.result().completeExceptionally(e);
+        } finally {
+            pending.remove(job.leagueKey(), job.result());
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public Metrics metrics() {
+        return new Metrics(budget.getUsed(), budget.getRemaining().orElse(-1), queue.size(), inFlight.get(),
+                completed.get(), failed.get(), coalesced.get(), skippedIdle.get(), deferredLowQuota.get());
+    }
+}
@@ -0,0 +1,116 @@
+package service;
+
+import diag.Log;
+import model.Coupon;
+import model.KickoffWindow;
+import model.Match;
+import model.MatchAnalysis;
+import model.MatchDelta;
+import model.RiskLevel;
+import service.BetLogicService.SmartOption;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// read side for many concurrent callers (http api): one immutable MatchSnapshot behind an AtomicReference
+// store refreshes build a new snapshot (coalesced, off the store's thread) and swap it in,
+// readers only do a volatile read and never take a lock
+public class SnapshotService {
+
+    // one fetchAll delivers a delta per league within a few ms, they are folded into a single rebuild
+    private static final long COALESCE_MS = 200;
+
+    private final BetLogicService logic;
+    private final CandidateIndex index;
+    private final MatchStore store;
+    private final AtomicReference<MatchSnapshot> current = new AtomicReference<>(MatchSnapshot.EMPTY);
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean rollingOver = new AtomicBoolean();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    // rebuilds run here, never on the store listener's call stack (putLeague holds the store lock there)
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "snapshot-publisher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private SnapshotService(BetLogicService logic, CandidateIndex index, MatchStore store) {
+        this.logic = logic;
+        this.index = index;
+        this.store = store;
+    }
+
+    // create after the CandidateIndex, store listeners run in registration order so the index is already updated
+    public static SnapshotService create(BetLogicService logic, CandidateIndex index, MatchStore store) {
+        SnapshotService service = new SnapshotService(logic, index, store);
+        store.addListener(service::onDelta);
+        if (!store.isEmpty()) service.publish();
+        return service;
+    }
+
+    // only marks the snapshot dirty, the first delta of a burst schedules the rebuild and the rest ride along
+    private void onDelta(MatchDelta delta) {
+        if (dirty.compareAndSet(false, true)) {
+            publisher.schedule(this::rebuild, COALESCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        // cleared before reading the store: a delta landing during the rebuild schedules another one
+        dirty.set(false);
+        try {
+            publish();
+        } catch (Exception e) {
+            Log.error("SNAPSHOT", "Rebuild failed, readers keep v" + current.get().version(), e);
+        }
+    }
+
+    // also called when the slate window moved on (midnight) while nothing was refreshed
+    // synchronized so a slow rollover rebuild can never swap in older data over a newer refresh:
+    // versions are taken and set in the same order
+    public synchronized void publish() {
+        KickoffWindow window = BetLogicService.slateWindow();
+        List<Match> slate = store.getWindow(window);
+
+        Map<RiskLevel, List<SmartOption>> candidates = new EnumMap<>(RiskLevel.class);
+        for (RiskLevel risk : RiskLevel.values()) {
+            candidates.put(risk, index.ranked(risk, window));
+        }
+        List<MatchAnalysis> analysis = List.copyOf(logic.analyzeMatches(slate));
+
+        MatchSnapshot next = new MatchSnapshot(versions.incrementAndGet(), Instant.now(), window, store.size(),
+                Collections.unmodifiableMap(candidates), analysis, BetLogicService.formatAnalysis(analysis));
+        current.set(next);
+        Log.debug("SNAPSHOT", () -> "Published v" + next.version() + " with " + slate.size() + " fixtures in the slate.");
+    }
+
+    public MatchSnapshot current() {
+        MatchSnapshot snapshot = current.get();
+        if (snapshot.window() != null && !snapshot.window().equals(BetLogicService.slateWindow())
+                && rollingOver.compareAndSet(false, true)) {
+            // first reader after midnight rebuilds, the others keep using the old one meanwhile
+            try {
+                if (current.get() == snapshot) publish();
+            } finally {
+                rollingOver.set(false);
+            }
+            snapshot = current.get();
+        }
+        return snapshot;
+    }
+
+    // same result as CandidateIndex.generateSmartCoupon, but without touching the index lock
+    public Coupon generateSmartCoupon(MatchSnapshot snapshot, double targetOdd, RiskLevel riskLevel) {
+        return logic.buildCouponFromCandidates(snapshot.candidates(riskLevel), targetOdd);
+    }
+}
@@ -1,19 +1,31 @@
 package service;
 
+import diag.Log;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import model.Match;
+import model.MatchPrediction;
+import model.TeamStats;
 
 public class StatsService {
 
-    public record TeamStats(double avgTotalGoals, double bttsRate, double winRate) {}
+    // avg stats for team in league, shared so unknown teams do not allocate
+    private static final TeamStats DEFAULT_STATS = new TeamStats(2.5, 0.50, 0.35);
 
+    // filled once in the constructor and only read afterwards, so the parallel scorers need no lock
     private final Map<String, TeamStats> statsMap = new HashMap<>();
     // added to store raw data for findStat method
     private final Map<String, String[]> rawDataMap = new HashMap<>();
+
+    // (home, away) -> prediction, stats.csv is a bundled resource so entries never go stale
+    private record FixtureKey(String home, String away) {}
+    private final Map<FixtureKey, MatchPrediction> predictionCache = new ConcurrentHashMap<>();
     private static final String FILE_NAME = "stats.csv";
 
     public StatsService() {
@@ -38,7 +50,7 @@ public class StatsService {
     private void loadStats() {
         try (InputStream is = getClass().getClassLoader().getResourceAsStream(FILE_NAME)) {
             if (is == null) {
-                System.out.println("No stats.csv file found - using default data.");
+                Log.warn("STATS", "No stats.csv file found - using default data.");
                 return;
             }
             // try-with-resources
@@ -64,7 +76,7 @@ public class StatsService {
                 }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            Log.error("STATS", "Could not read " + FILE_NAME, e);
         }
     }
 
@@ -82,21 +94,54 @@ public class StatsService {
         String key = cleanName(teamName);
 
         // if nothing found we return avg stats for team in league
-        return statsMap.getOrDefault(key, new TeamStats(2.5, 0.50, 0.35));
+        return statsMap.getOrDefault(key, DEFAULT_STATS);
+    }
+
+    // names are cleaned and looked up once here, scoring reads match.getHomeStats()/getAwayStats()
+    public void resolveTeams(List<Match> matches) {
+        for (Match m : matches) {
+            m.setHomeStats(getStatsForTeam(m.getHomeTeam()));
+            m.setAwayStats(getStatsForTeam(m.getAwayTeam()));
+        }
+    }
+
+    public TeamStats homeStats(Match m) {
+        return (m.getHomeStats() != null) ? m.getHomeStats() : getStatsForTeam(m.getHomeTeam());
+    }
+
+    public TeamStats awayStats(Match m) {
+        return (m.getAwayStats() != null) ? m.getAwayStats() : getStatsForTeam(m.getAwayTeam());
+    }
+
+    public MatchPrediction predict(Match m) {
+        return predictionCache.computeIfAbsent(new FixtureKey(m.getHomeTeam(), m.getAwayTeam()),
+                k -> buildPrediction(homeStats(m), awayStats(m)));
+    }
+
+    public MatchPrediction predict(String home, String away) {
+        return predictionCache.computeIfAbsent(new FixtureKey(home, away),
+                k -> buildPrediction(getStatsForTeam(home), getStatsForTeam(away)));
+    }
+
+    private MatchPrediction buildPrediction(TeamStats h, TeamStats a) {
+        return new MatchPrediction(predictBTTSProb(h, a), predictMatchTotal(h, a), h.winRate(), a.winRate());
     }
 
     // predicted goals in match
     public double predictMatchTotal(String home, String away) {
-        TeamStats h = getStatsForTeam(home);
-        TeamStats a = getStatsForTeam(away);
+        return predictMatchTotal(getStatsForTeam(home), getStatsForTeam(away));
+    }
+
+    public double predictMatchTotal(TeamStats h, TeamStats a) {
         return (h.avgTotalGoals() + a.avgTotalGoals()) / 2.0;
     }
 
     // possibility of BTTS
     public double predictBTTSProb(String home, String away) {
-        TeamStats h = getStatsForTeam(home);
-        TeamStats a = getStatsForTeam(away);
+        return predictBTTSProb(getStatsForTeam(home), getStatsForTeam(away));
+    }
 
+    public double predictBTTSProb(TeamStats h, TeamStats a) {
         // Poisson distribution
         double homeLambda = h.avgTotalGoals() / 2.0;
         double awayLambda = a.avgTotalGoals() / 2.0;
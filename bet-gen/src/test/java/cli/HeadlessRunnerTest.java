@@ -0,0 +1,121 @@
+package cli;
+
+import api.OddsApiClient;
+import api.SnapshotCodec;
+import model.BetOption;
+import model.Match;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadlessRunnerTest {
+
+    private static final String LEAGUE = "soccer_epl";
+    private static final LocalDateTime KICKOFF = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS).plusDays(1);
+
+    // answers every league from memory, the epl body carries the "Fresh" fixtures
+    private static final class FakeClient extends OddsApiClient {
+        @Override
+        public InputStream getRawStream(String sportKey) {
+            String body = sportKey.equals(LEAGUE) ? freshBody() : "[]";
+            return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void batchRunDoesNotServeAnExpiredSnapshot(@TempDir Path dir) throws Exception {
+        writeStaleSnapshot();
+
+        Path in = dir.resolve("requests.txt");
+        Path out = dir.resolve("results.jsonl");
+        Files.writeString(in, "2.0 MEDIUM\n");
+
+        assertEquals(0, HeadlessRunner.run(new String[]{"--in", in.toString(), "--out", out.toString()}, new FakeClient()));
+
+        String result = Files.readString(out);
+        assertFalse(result.contains("Stale"), "expired snapshot was served: " + result);
+
+        JSONArray legs = new JSONObject(result.trim()).getJSONArray("legs");
+        assertFalse(legs.isEmpty(), "no legs in " + result);
+        for (int i = 0; i < legs.length(); i++) {
+            assertTrue(legs.getJSONObject(i).getString("home").startsWith("Fresh"), result);
+        }
+    }
+
+    // same fixtures and prices as the fresh body, only the names differ, saved two days ago
+    private static void writeStaleSnapshot() throws Exception {
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Match m = new Match();
+            m.setHomeTeam("Stale Home " + i);
+            m.setAwayTeam("Stale Away " + i);
+            m.setTime(KICKOFF.plusHours(i));
+            m.setOdds(List.of(
+                    new BetOption(m.getHomeTeam(), 1.4, null),
+                    new BetOption(m.getAwayTeam(), 5.0, null),
+                    new BetOption("Draw", 4.0, null),
+                    new BetOption("Over", 1.5, 2.5),
+                    new BetOption("Under", 2.4, 2.5)));
+            matches.add(m);
+        }
+
+        Path folder = Paths.get(System.getProperty("user.home"), ".betaidashboard");
+        Files.createDirectories(folder);
+        Path file = folder.resolve("cache_" + LEAGUE + ".bin");
+        ByteBuffer buf = SnapshotCodec.encode(matches);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 2 * 24 * 60 * 60 * 1000L));
+    }
+
+    private static String freshBody() {
+        JSONArray events = new JSONArray();
+        for (int i = 0; i < 3; i++) {
+            String home = "Fresh Home " + i;
+            String away = "Fresh Away " + i;
+            JSONArray markets = new JSONArray()
+                    .put(new JSONObject().put("key", "h2h").put("outcomes", new JSONArray()
+                            .put(outcome(home, 1.4, null))
+                            .put(outcome(away, 5.0, null))
+                            .put(outcome("Draw", 4.0, null))))
+                    .put(new JSONObject().put("key", "totals").put("outcomes", new JSONArray()
+                            .put(outcome("Over", 1.5, 2.5))
+                            .put(outcome("Under", 2.4, 2.5))));
+            events.put(new JSONObject()
+                    .put("sport_title", "EPL")
+                    .put("commence_time", KICKOFF.plusHours(i) + "Z")
+                    .put("home_team", home)
+                    .put("away_team", away)
+                    .put("bookmakers", new JSONArray().put(new JSONObject().put("key", "pinnacle").put("markets", markets))));
+        }
+        return events.toString();
+    }
+
+    private static JSONObject outcome(String name, double price, Double point) {
+        JSONObject o = new JSONObject().put("name", name).put("price", price);
+        return (point != null) ? o.put("point", point) : o;
+    }
+}